@@ -0,0 +1,208 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import eulertour.jmh.Workload;
+
+/**
+ * EulerWorkload - The phases of the Graph engine on graphs of several
+ * shapes, for the JMH benchmarks of eulertour.jmh. Every shape is Eulerian;
+ * the path fold runs on the same graph without its last edge. The input of
+ * every phase is prepared in setup, so a call runs the phase alone.
+ * @author rameshsuthan
+ *
+ */
+public class EulerWorkload implements Workload {
+	private static final PrintStream NULL_OUT = new PrintStream(
+			OutputStream.nullOutputStream());
+
+	private byte[] circuitText; // text of the circuit, for readGraph
+	private Graph g; // the circuit
+	private final Vertex[] ends = new Vertex[2];
+	private DoublyLinkedList<Edge> tour; // tour of g, for the output phases
+	private DoublyLinkedList<Edge> circuit; // path closed by the fake edge
+	private Edge fakeEdge;
+	private Vertex pathStart;
+
+	/**
+	 * Method to build the edges of a graph of the given shape with about m
+	 * edges, as the "n m" / "u v w" text
+	 *
+	 * @param shape
+	 *            : String - cycle, grid, complete, hub or random
+	 * @param m
+	 *            : int - number of edges wanted
+	 * @param seed
+	 *            : long - seed of the random shape
+	 * @param dropLast
+	 *            : boolean - leave out the last edge, which turns the
+	 *            circuit into a path
+	 * @return graph text
+	 */
+	static byte[] shape(String shape, int m, long seed, boolean dropLast) {
+		List<int[]> edges = new ArrayList<>();
+		int n;
+		switch (shape) {
+		case "cycle":
+			n = Math.max(m, 3);
+			for (int i = 1; i <= n; i++) {
+				edges.add(new int[] { i, i % n + 1 });
+			}
+			break;
+		case "grid": {
+			// a torus, every vertex has degree 4
+			int side = Math.max(3, (int) Math.sqrt(m / 2.0));
+			n = side * side;
+			for (int r = 0; r < side; r++) {
+				for (int c = 0; c < side; c++) {
+					int v = r * side + c + 1;
+					edges.add(new int[] { v, r * side + (c + 1) % side + 1 });
+					edges.add(new int[] { v, ((r + 1) % side) * side + c + 1 });
+				}
+			}
+			break;
+		}
+		case "complete": {
+			// an odd number of vertices, so every degree is even
+			n = (int) Math.sqrt(2.0 * m) | 1;
+			n = Math.max(n, 3);
+			for (int u = 1; u <= n; u++) {
+				for (int v = u + 1; v <= n; v++) {
+					edges.add(new int[] { u, v });
+				}
+			}
+			break;
+		}
+		case "hub": {
+			// triangles sharing vertex 1, every triangle is a sub circuit
+			int blades = Math.max(1, m / 3);
+			n = 2 * blades + 1;
+			for (int b = 0; b < blades; b++) {
+				int x = 2 * b + 2, y = 2 * b + 3;
+				edges.add(new int[] { 1, x });
+				edges.add(new int[] { x, y });
+				edges.add(new int[] { y, 1 });
+			}
+			break;
+		}
+		case "random": {
+			// closed random walks: one through every vertex, then more from
+			// vertex 1 until there are m edges
+			Random rnd = new Random(seed);
+			n = Math.max(3, m / 4);
+			int[] order = new int[n];
+			for (int i = 0; i < n; i++) {
+				order[i] = i + 1;
+			}
+			for (int i = n - 1; i > 0; i--) {
+				int j = rnd.nextInt(i + 1);
+				int t = order[i];
+				order[i] = order[j];
+				order[j] = t;
+			}
+			for (int i = 0; i < n; i++) {
+				edges.add(new int[] { order[i], order[(i + 1) % n] });
+			}
+			while (edges.size() < m) {
+				int u = 1;
+				int length = 2 + rnd.nextInt(16);
+				for (int i = 0; i < length; i++) {
+					int v = i == length - 1 ? 1 : rnd.nextInt(n) + 1;
+					edges.add(new int[] { u, v });
+					u = v;
+				}
+			}
+			break;
+		}
+		default:
+			throw new IllegalArgumentException("Unknown shape " + shape);
+		}
+		if (dropLast) {
+			edges.remove(edges.size() - 1);
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append(n).append(' ').append(edges.size()).append('\n');
+		for (int[] e : edges) {
+			sb.append(e[0]).append(' ').append(e[1]).append(" 1\n");
+		}
+		return sb.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static Graph parse(byte[] text) throws IOException {
+		return Graph.readGraph(new EdgeListReader(Channels
+				.newChannel(new ByteArrayInputStream(text))), false);
+	}
+
+	@Override
+	public void setup(String shape, int size, long seed) throws IOException {
+		circuitText = shape(shape, size, seed, false);
+		g = parse(circuitText);
+		tour = Euler.hierholzerAlgorithm(g, g.verts.get(1));
+
+		// the path fold works on a circuit closed by the fake edge
+		Graph p = parse(shape(shape, size, seed, true));
+		EulerContext ctx = new EulerContext();
+		ctx.reset(p);
+		if (Euler.findEnds(p, null, ends, ctx) != 1) {
+			throw new IllegalStateException(shape + " without its last edge"
+					+ " has no Euler path");
+		}
+		fakeEdge = new Edge(ends[0], ends[1], 1);
+		fakeEdge.id = p.numEdges;
+		ctx.fakeEdge = fakeEdge;
+		circuit = Euler.hierholzerAlgorithm(p, ends[0], ctx);
+		pathStart = ends[0];
+	}
+
+	@Override
+	public long readGraph() throws IOException {
+		return parse(circuitText).numEdges;
+	}
+
+	@Override
+	public long isConnected() {
+		return Euler.isConnected(g) ? 1 : 0;
+	}
+
+	@Override
+	public long isEuler() {
+		return Euler.isEuler(g, ends);
+	}
+
+	@Override
+	public long hierholzerAlgorithm() {
+		return Euler.hierholzerAlgorithm(g, g.verts.get(1)).size;
+	}
+
+	@Override
+	public long getEulerPath() {
+		return Euler.getEulerPath(circuit, fakeEdge, pathStart).size;
+	}
+
+	@Override
+	public long printList() {
+		PrintStream out = System.out;
+		System.setOut(NULL_OUT);
+		try {
+			tour.printList();
+		} finally {
+			System.setOut(out);
+		}
+		return tour.size;
+	}
+
+	@Override
+	public long tourWriter() throws IOException {
+		TourWriter w = new TourWriter(Channels.newChannel(OutputStream
+				.nullOutputStream()), TourWriter.Format.PAIR);
+		w.write(tour);
+		w.finish();
+		return tour.size;
+	}
+}
@@ -0,0 +1,89 @@
+package eulertour.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PhaseBenchmark - JMH benchmarks of the phases of the Graph engine, one
+ * per phase: parsing (Graph.readGraph), the checks (isConnected, isEuler),
+ * the tour (hierholzerAlgorithm), the path fold (getEulerPath) and the
+ * output (DoublyLinkedList.printList and TourWriter). Every phase runs on
+ * inputs of every shape and size; the size is the number of edges, which
+ * the shapes round to what they can build.
+ *
+ * Usage: java -jar target/benchmarks.jar [-p shape=hub -p size=100000]
+ * @author rameshsuthan
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PhaseBenchmark {
+	@Param({ "cycle", "grid", "complete", "hub", "random" })
+	public String shape;
+
+	@Param({ "10000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "1" })
+	public long seed;
+
+	private Workload workload;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, ReflectiveOperationException {
+		workload = Workload.create();
+		workload.setup(shape, size, seed);
+	}
+
+	@Benchmark
+	public long readGraph() throws IOException {
+		return workload.readGraph();
+	}
+
+	@Benchmark
+	public long isConnected() {
+		return workload.isConnected();
+	}
+
+	@Benchmark
+	public long isEuler() {
+		return workload.isEuler();
+	}
+
+	@Benchmark
+	public long hierholzerAlgorithm() {
+		return workload.hierholzerAlgorithm();
+	}
+
+	@Benchmark
+	public long getEulerPath() {
+		return workload.getEulerPath();
+	}
+
+	@Benchmark
+	public long printList() {
+		return workload.printList();
+	}
+
+	@Benchmark
+	public long tourWriter() throws IOException {
+		return workload.tourWriter();
+	}
+}
@@ -0,0 +1,54 @@
+package eulertour.jmh;
+
+import java.io.IOException;
+
+/**
+ * Workload - The phases of the Graph engine on one prepared input. The
+ * solver is in the default package, which a named package cannot refer to,
+ * and JMH does not take benchmarks in the default package, so the
+ * benchmarks reach the solver through this interface. EulerWorkload
+ * implements it in the default package and is loaded once per trial, the
+ * measured calls are plain interface calls.
+ * @author rameshsuthan
+ *
+ */
+public interface Workload {
+
+	/**
+	 * Method to build the input of the phases
+	 *
+	 * @param shape
+	 *            : String - cycle, grid, complete, hub or random
+	 * @param size
+	 *            : int - number of edges wanted
+	 * @param seed
+	 *            : long - seed of the random shape
+	 * @throws IOException
+	 */
+	void setup(String shape, int size, long seed) throws IOException;
+
+	long readGraph() throws IOException;
+
+	long isConnected();
+
+	long isEuler();
+
+	long hierholzerAlgorithm();
+
+	long getEulerPath();
+
+	long printList();
+
+	long tourWriter() throws IOException;
+
+	/**
+	 * Method to load the workload of the solver
+	 *
+	 * @return new EulerWorkload
+	 * @throws ReflectiveOperationException
+	 */
+	static Workload create() throws ReflectiveOperationException {
+		return (Workload) Class.forName("EulerWorkload")
+				.getDeclaredConstructor().newInstance();
+	}
+}
@@ -0,0 +1,192 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * BatchSolver - Solves many graphs in one JVM on a fixed pool of threads.
+ * Every graph is solved into its own small buffer and the buffers are
+ * written out in input order. At most maxInFlight graphs are queued or being
+ * solved at a time: once that many are pending, the caller waits for the
+ * oldest one to be written before it submits the next, so memory stays
+ * bounded however long the batch is. Each result starts with a "# name"
+ * line, followed by the tour in the chosen format or "Graph is not
+ * Eulerian".
+ * @author rameshsuthan
+ *
+ */
+public class BatchSolver implements AutoCloseable {
+	// the tours of a batch are small, a large buffer per job is waste
+	private static final int JOB_BUFFER_SIZE = 1 << 14;
+
+	private final ExecutorService pool;
+	private final int maxInFlight;
+	private final TourWriter.Format format;
+	private final OutputStream out;
+	// results not written yet, oldest first
+	private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+
+	/**
+	 * Constructor for BatchSolver
+	 *
+	 * @param threads
+	 *            : int - number of solver threads
+	 * @param maxInFlight
+	 *            : int - number of graphs queued or solved at a time
+	 * @param format
+	 *            : TourWriter.Format - how the tours are written
+	 * @param out
+	 *            : OutputStream - where the results are written
+	 */
+	public BatchSolver(int threads, int maxInFlight, TourWriter.Format format,
+			OutputStream out) {
+		this.pool = Executors.newFixedThreadPool(threads);
+		this.maxInFlight = Math.max(maxInFlight, 1);
+		this.format = format;
+		this.out = out;
+	}
+
+	/**
+	 * Method to queue a graph file. The file is read on a solver thread.
+	 *
+	 * @param file
+	 *            : File - graph in the "n m" / "u v w" text format
+	 * @throws IOException
+	 */
+	public void submit(File file) throws IOException {
+		submit(file.getPath(),
+				() -> CsrGraph.readGraph(EdgeListReader.open(file)));
+	}
+
+	/**
+	 * Method to queue a graph already read by the caller
+	 *
+	 * @param name
+	 *            : String - name written before the result
+	 * @param g
+	 *            : CsrGraph - graph to solve
+	 * @throws IOException
+	 */
+	public void submit(String name, CsrGraph g) throws IOException {
+		submit(name, () -> g);
+	}
+
+	private void submit(String name, Callable<CsrGraph> graph)
+			throws IOException {
+		// backpressure: write the oldest result before taking a new job
+		while (pending.size() >= maxInFlight) {
+			writeNext();
+		}
+		pending.add(pool.submit(() -> solve(name, graph)));
+	}
+
+	/**
+	 * Method to solve one graph into a byte array
+	 */
+	private byte[] solve(String name, Callable<CsrGraph> graph) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		TourWriter w = new TourWriter(Channels.newChannel(bytes), format,
+				JOB_BUFFER_SIZE);
+		try {
+			w.writeLine("# " + name);
+			CsrGraph g = graph.call();
+			int sVertex = CsrEulerTour.walkStart(g);
+			if (sVertex == -1) {
+				w.writeLine(Euler.NOT_EULERIAN);
+			} else if (sVertex > 0) {
+				CsrEulerTour.hierholzerAlgorithm(g, sVertex, w.edgeSink(g));
+				w.finish();
+			}
+			w.flush();
+		} catch (Exception e) {
+			// a bad graph is reported in its place, the batch goes on
+			String line = "# " + name + "\nerror: " + e + "\n";
+			return line.getBytes(StandardCharsets.UTF_8);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Method to wait for the oldest result and write it out
+	 */
+	private void writeNext() throws IOException {
+		Future<byte[]> next = pending.poll();
+		try {
+			out.write(next.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Method to write all the results not written yet
+	 *
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		while (!pending.isEmpty()) {
+			writeNext();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Method to write the remaining results and stop the threads
+	 */
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Method to solve the given graph files, or the graphs read back to back
+	 * from the reader when there are no files
+	 *
+	 * @param files
+	 *            : List<String> - graph files, in output order
+	 * @param in
+	 *            : EdgeListReader - multi graph input, used if files is
+	 *            empty
+	 * @param threads
+	 *            : int - number of solver threads
+	 * @param format
+	 *            : TourWriter.Format - how the tours are written
+	 * @param out
+	 *            : OutputStream - where the results are written
+	 * @throws IOException
+	 */
+	public static void run(List<String> files, EdgeListReader in,
+			int threads, TourWriter.Format format, OutputStream out)
+			throws IOException {
+		try (BatchSolver batch = new BatchSolver(threads, 4 * threads,
+				format, out)) {
+			if (!files.isEmpty()) {
+				for (String file : files) {
+					batch.submit(new File(file));
+				}
+				return;
+			}
+			// the stream is parsed here, in order, and solved on the pool
+			int count = 0;
+			while (in.hasNext()) {
+				batch.submit("graph " + ++count, CsrGraph.readNextGraph(in));
+			}
+			in.close();
+		}
+	}
+}
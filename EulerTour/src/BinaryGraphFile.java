@@ -0,0 +1,449 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * BinaryGraphFile - On-disk binary form of a CsrGraph. The file is
+ *
+ * <pre>
+ * int magic, int version, long n, long m
+ * int from[m], int to[m], int weight[m]
+ * long offsets[n+2], int targets[2m], int arcEdge[2m]
+ * </pre>
+ *
+ * all little endian. map() opens the file with FileChannel.map and the graph
+ * reads the arrays straight from the mapped pages, so opening a graph costs
+ * no parsing and no copy. A mapping is limited to 2 GB, so every array is
+ * mapped as one region per chunk of IntArray or LongArray. The 2m arcs may
+ * be more than an int counts, their offsets are longs. A CsrGraph numbers
+ * its vertices and edges with ints, so n and m are at most 2^31-1.
+ * @author rameshsuthan
+ *
+ */
+public class BinaryGraphFile {
+	static final int MAGIC = 0x45554c52; // "EULR"
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 24; // bytes
+	// number of edges convert() sorts in memory for one run
+	public static final int RUN_EDGES = 1 << 21;
+
+	/**
+	 * Method to write the graph in the binary format
+	 *
+	 * @param g
+	 *            : CsrGraph - graph to write
+	 * @param file
+	 *            : File - output file
+	 * @throws IOException
+	 */
+	public static void write(CsrGraph g, File file) throws IOException {
+		try (FileChannel fc = FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(
+					ByteOrder.LITTLE_ENDIAN);
+			buf.putInt(MAGIC).putInt(VERSION).putLong(g.numNodes)
+					.putLong(g.numEdges);
+			writeInts(fc, buf, g.from, g.numEdges);
+			writeInts(fc, buf, g.to, g.numEdges);
+			writeInts(fc, buf, g.weight, g.numEdges);
+			writeLongs(fc, buf, g.offsets, g.numNodes + 2L);
+			writeInts(fc, buf, g.targets, 2L * g.numEdges);
+			writeInts(fc, buf, g.arcEdge, 2L * g.numEdges);
+			flush(fc, buf);
+		}
+	}
+
+	/**
+	 * Method to copy the first count ints of src to the channel through buf
+	 */
+	private static void writeInts(FileChannel fc, ByteBuffer buf,
+			IntArray src, long count) throws IOException {
+		for (long i = 0; i < count; i++) {
+			if (buf.remaining() < 4) {
+				flush(fc, buf);
+			}
+			buf.putInt(src.get(i));
+		}
+	}
+
+	/**
+	 * Method to copy the first count longs of src to the channel through buf
+	 */
+	private static void writeLongs(FileChannel fc, ByteBuffer buf,
+			LongArray src, long count) throws IOException {
+		for (long i = 0; i < count; i++) {
+			if (buf.remaining() < 8) {
+				flush(fc, buf);
+			}
+			buf.putLong(src.get(i));
+		}
+	}
+
+	private static void flush(FileChannel fc, ByteBuffer buf)
+			throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			fc.write(buf);
+		}
+		buf.clear();
+	}
+
+	/**
+	 * Method to open a graph written by write(). The returned graph is backed
+	 * by read only mappings of the file, which stay valid after this method
+	 * closes the channel.
+	 *
+	 * @param file
+	 *            : File - input file
+	 * @return CsrGraph
+	 * @throws IOException
+	 *             if the file is not a graph in the binary format
+	 */
+	public static CsrGraph map(File file) throws IOException {
+		try (FileChannel fc = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(
+					ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (fc.read(header) < 0) {
+					break;
+				}
+			}
+			header.flip();
+			if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+				throw new IOException(file + " is not a binary graph file");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException(file + ": unsupported version "
+						+ version);
+			}
+			long n = header.getLong();
+			long m = header.getLong();
+			if (n < 0 || n > Integer.MAX_VALUE || m < 0
+					|| m > Integer.MAX_VALUE) {
+				throw new IOException(file + ": " + n + " vertices and " + m
+						+ " edges do not fit in a CsrGraph");
+			}
+
+			long expected = HEADER_SIZE + 12L * m + 8L * (n + 2) + 16L * m;
+			if (fc.size() != expected) {
+				throw new IOException(file + ": expected " + expected
+						+ " bytes but found " + fc.size());
+			}
+
+			FileChannel.MapMode mode = FileChannel.MapMode.READ_ONLY;
+			long position = HEADER_SIZE;
+			IntArray from = mapInts(fc, mode, position, m);
+			position += 4L * m;
+			IntArray to = mapInts(fc, mode, position, m);
+			position += 4L * m;
+			IntArray weight = mapInts(fc, mode, position, m);
+			position += 4L * m;
+			LongArray offsets = mapLongs(fc, mode, position, n + 2);
+			position += 8L * (n + 2);
+			IntArray targets = mapInts(fc, mode, position, 2 * m);
+			position += 8L * m;
+			IntArray arcEdge = mapInts(fc, mode, position, 2 * m);
+
+			return new CsrGraph((int) n, (int) m, from, to, weight, offsets,
+					targets, arcEdge);
+		}
+	}
+
+	/**
+	 * Method to map count ints of the file from the given position on, one
+	 * region per chunk of the IntArray
+	 */
+	private static IntArray mapInts(FileChannel fc, FileChannel.MapMode mode,
+			long position, long count) throws IOException {
+		IntBuffer[] chunks = new IntBuffer[IntArray.chunkCount(count)];
+		for (int c = 0; c < chunks.length; c++) {
+			chunks[c] = fc.map(mode, position + 4 * c * IntArray.CHUNK,
+					4L * IntArray.chunkSize(count, c))
+					.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		}
+		return new IntArray(chunks, count);
+	}
+
+	/**
+	 * Method to map count longs of the file from the given position on, one
+	 * region per chunk of the LongArray
+	 */
+	private static LongArray mapLongs(FileChannel fc,
+			FileChannel.MapMode mode, long position, long count)
+			throws IOException {
+		LongBuffer[] chunks = new LongBuffer[LongArray.chunkCount(count)];
+		for (int c = 0; c < chunks.length; c++) {
+			chunks[c] = fc.map(mode, position + 8 * c * LongArray.CHUNK,
+					8L * LongArray.chunkSize(count, c))
+					.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+		}
+		return new LongArray(chunks, count);
+	}
+
+	/**
+	 * Method to convert a text graph file to the binary format without
+	 * holding the graph on the heap. The edges are streamed straight into
+	 * the from/to/weight arrays of the output and the degrees are counted in
+	 * its mapped offsets array. The arcs are cut into runs of at most
+	 * runEdges edges, every run is sorted by vertex and spilled to tmpDir,
+	 * and the sorted runs are merged into the targets and arcEdge arrays in
+	 * one sequential pass. The result is the same file as write() of the
+	 * CsrGraph read from the text.
+	 *
+	 * @param input
+	 *            : File - graph in the "n m" / "u v w" text format
+	 * @param output
+	 *            : File - binary graph file
+	 * @param tmpDir
+	 *            : File - directory for the sorted runs
+	 * @param runEdges
+	 *            : int - number of edges sorted in memory at a time
+	 * @throws IOException
+	 */
+	public static void convert(File input, File output, File tmpDir,
+			int runEdges) throws IOException {
+		List<File> runs = new ArrayList<>();
+		try (EdgeListReader in = EdgeListReader.open(input);
+				FileChannel fc = FileChannel.open(output.toPath(),
+						StandardOpenOption.CREATE, StandardOpenOption.READ,
+						StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING)) {
+			int n = in.nextInt();
+			int m = in.nextInt();
+			long fromPos = HEADER_SIZE;
+			long offsetsPos = fromPos + 12L * m;
+			long targetsPos = offsetsPos + 8L * (n + 2);
+			long arcEdgePos = targetsPos + 8L * m;
+
+			// the mapping extends the file, the degrees start at zero
+			LongArray offsets = mapLongs(fc, FileChannel.MapMode.READ_WRITE,
+					offsetsPos, n + 2L);
+			ByteBuffer fromOut = newBuffer(), toOut = newBuffer(), weightOut = newBuffer();
+			long fromAt = fromPos, toAt = fromPos + 4L * m, weightAt = fromPos + 8L * m;
+
+			int[] from = new int[runEdges];
+			int[] to = new int[runEdges];
+			long[] keys = new long[2 * runEdges];
+			for (int first = 0; first < m; first += runEdges) {
+				int count = Math.min(runEdges, m - first);
+				for (int i = 0; i < count; i++) {
+					int u = in.nextInt();
+					int v = in.nextInt();
+					int w = in.nextInt();
+					if (u < 1 || u > n || v < 1 || v > n) {
+						throw new IllegalArgumentException("Invalid edge (" + u
+								+ "," + v + ") for a graph with " + n
+								+ " vertices");
+					}
+					from[i] = u;
+					to[i] = v;
+					offsets.put(u + 1, offsets.get(u + 1) + 1);
+					offsets.put(v + 1, offsets.get(v + 1) + 1);
+					fromAt = putInt(fc, fromOut, fromAt, u);
+					toAt = putInt(fc, toOut, toAt, v);
+					weightAt = putInt(fc, weightOut, weightAt, w);
+					// an arc is sorted on its vertex, then on its edge
+					int e = first + i;
+					keys[2 * i] = ((long) u << 32) | e;
+					keys[2 * i + 1] = ((long) v << 32) | e;
+				}
+				Arrays.sort(keys, 0, 2 * count);
+				runs.add(spillRun(tmpDir, keys, 2 * count, from, to, first));
+			}
+			flushAt(fc, fromOut, fromAt);
+			flushAt(fc, toOut, toAt);
+			flushAt(fc, weightOut, weightAt);
+
+			for (int v = 1; v <= n + 1; v++) {
+				CsrGraph.checkDegree(v - 1, offsets.get(v));
+				offsets.put(v, offsets.get(v) + offsets.get(v - 1));
+			}
+
+			mergeRuns(fc, runs, targetsPos, arcEdgePos);
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(
+					ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putLong(n).putLong(m);
+			flushAt(fc, header, HEADER_SIZE);
+		} finally {
+			for (File run : runs) {
+				run.delete();
+			}
+		}
+	}
+
+	private static ByteBuffer newBuffer() {
+		return ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Method to buffer an int for the file position at, writing the buffer
+	 * out when it is full
+	 *
+	 * @return file position of the next int
+	 */
+	private static long putInt(FileChannel fc, ByteBuffer buf, long at, int x)
+			throws IOException {
+		buf.putInt(x);
+		if (!buf.hasRemaining()) {
+			flushAt(fc, buf, at + 4);
+		}
+		return at + 4;
+	}
+
+	/**
+	 * Method to write the buffered bytes so that they end right before the
+	 * file position end
+	 */
+	private static void flushAt(FileChannel fc, ByteBuffer buf, long end)
+			throws IOException {
+		buf.flip();
+		long position = end - buf.remaining();
+		while (buf.hasRemaining()) {
+			position += fc.write(buf, position);
+		}
+		buf.clear();
+	}
+
+	/**
+	 * Method to write a sorted run as (long key, int target) records
+	 */
+	private static File spillRun(File tmpDir, long[] keys, int count,
+			int[] from, int[] to, int first) throws IOException {
+		File run = File.createTempFile("arcs", ".run", tmpDir);
+		try (FileChannel out = FileChannel.open(run.toPath(),
+				StandardOpenOption.WRITE)) {
+			ByteBuffer buf = ByteBuffer.allocate(12 << 12).order(
+					ByteOrder.LITTLE_ENDIAN);
+			for (int i = 0; i < count; i++) {
+				int v = (int) (keys[i] >>> 32);
+				int e = (int) keys[i] - first;
+				buf.putLong(keys[i]).putInt(from[e] == v ? to[e] : from[e]);
+				if (!buf.hasRemaining()) {
+					writeAll(out, buf);
+				}
+			}
+			writeAll(out, buf);
+		}
+		return run;
+	}
+
+	private static void writeAll(FileChannel out, ByteBuffer buf)
+			throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			out.write(buf);
+		}
+		buf.clear();
+	}
+
+	/**
+	 * RunReader - Sequential reader of a run of (long key, int target)
+	 *
+	 */
+	private static class RunReader implements Closeable {
+		private final FileChannel in;
+		private final ByteBuffer buf = ByteBuffer.allocate(12 << 12).order(
+				ByteOrder.LITTLE_ENDIAN);
+		long key; // key of the current record
+		int target; // target of the current record
+
+		RunReader(File run) throws IOException {
+			in = FileChannel.open(run.toPath(), StandardOpenOption.READ);
+			buf.flip();
+		}
+
+		/**
+		 * Method to move to the next record
+		 *
+		 * @return false at the end of the run
+		 */
+		boolean next() throws IOException {
+			if (buf.remaining() < 12) {
+				buf.compact();
+				while (buf.position() < 12) {
+					if (in.read(buf) < 0) {
+						buf.flip();
+						return false;
+					}
+				}
+				buf.flip();
+			}
+			key = buf.getLong();
+			target = buf.getInt();
+			return true;
+		}
+
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	/**
+	 * Method to merge the sorted runs into the targets and arcEdge arrays
+	 */
+	private static void mergeRuns(FileChannel fc, List<File> runs,
+			long targetsPos, long arcEdgePos) throws IOException {
+		PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1,
+				runs.size()), (a, b) -> Long.compare(a.key, b.key));
+		List<RunReader> readers = new ArrayList<>();
+		try {
+			for (File run : runs) {
+				RunReader r = new RunReader(run);
+				readers.add(r);
+				if (r.next()) {
+					queue.add(r);
+				}
+			}
+			ByteBuffer targetsOut = newBuffer(), arcEdgeOut = newBuffer();
+			long targetsAt = targetsPos, arcEdgeAt = arcEdgePos;
+			while (!queue.isEmpty()) {
+				RunReader r = queue.poll();
+				targetsAt = putInt(fc, targetsOut, targetsAt, r.target);
+				arcEdgeAt = putInt(fc, arcEdgeOut, arcEdgeAt, (int) r.key);
+				if (r.next()) {
+					queue.add(r);
+				}
+			}
+			flushAt(fc, targetsOut, targetsAt);
+			flushAt(fc, arcEdgeOut, arcEdgeAt);
+		} finally {
+			for (RunReader r : readers) {
+				r.close();
+			}
+		}
+	}
+
+	/**
+	 * Converter from the "n m" / "u v w" text format to the binary format.
+	 * The edges are streamed through convert(), so the graph is never held
+	 * on the heap. The sorted runs go to -tmpdir, by default java.io.tmpdir.
+	 *
+	 * Usage: java BinaryGraphFile input.txt output.bin [-tmpdir DIR]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err
+					.println("Usage: java BinaryGraphFile input.txt output.bin [-tmpdir DIR]");
+			System.exit(1);
+		}
+		File tmpDir = new File(System.getProperty("java.io.tmpdir"));
+		if (args.length > 3 && args[2].equals("-tmpdir")) {
+			tmpDir = new File(args[3]);
+		}
+		convert(new File(args[0]), new File(args[1]), tmpDir, RUN_EDGES);
+	}
+}
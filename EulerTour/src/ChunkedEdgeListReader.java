@@ -0,0 +1,406 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ChunkedEdgeListReader - Reads a graph file in the "n m" followed by m lines
+ * of "u v w" format on several threads. The body is split into byte ranges
+ * that start and end on whitespace, every range is parsed by its own
+ * EdgeListReader into a list of integers, and the integers are then cut into
+ * (u, v, w) triples in file order, one Chunk per range. A triple may span
+ * lines or ranges and anything after the m-th triple is ignored, so the
+ * file is read exactly as the sequential EdgeListReader or a Scanner reads
+ * it, and the edges come out in the same order.
+ * @author rameshsuthan
+ *
+ */
+public class ChunkedEdgeListReader {
+	// ranges smaller than this are not worth a thread of their own
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+	public int numNodes; // number of vertices in the graph
+	public int numEdges; // number of edges in the graph
+	public List<Chunk> chunks; // parsed edges, in file order
+	public EulerPrecheck precheck; // check of the edges, if read with one
+	private long bytesRead; // size of the file
+	private long elapsedNanos; // time taken to read the file
+
+	/**
+	 * Chunk - Edges parsed from one byte range of the file
+	 *
+	 */
+	public static class Chunk {
+		public int size; // number of edges in the chunk
+		public int[] from = new int[1024]; // one end of edge i
+		public int[] to = new int[1024]; // other end of edge i
+		public int[] weight = new int[1024]; // weight of edge i
+
+		void add(int a, int b, int w) {
+			if (size == from.length) {
+				int capacity = from.length << 1;
+				from = Arrays.copyOf(from, capacity);
+				to = Arrays.copyOf(to, capacity);
+				weight = Arrays.copyOf(weight, capacity);
+			}
+			from[size] = a;
+			to[size] = b;
+			weight[size] = w;
+			size++;
+		}
+	}
+
+	/**
+	 * RangeChannel - Channel over the bytes start..end-1 of a file. Uses
+	 * positional reads, so many of them can share one FileChannel.
+	 *
+	 */
+	private static class RangeChannel implements ReadableByteChannel {
+		private final FileChannel fc;
+		private long position;
+		private final long end;
+
+		RangeChannel(FileChannel fc, long start, long end) {
+			this.fc = fc;
+			this.position = start;
+			this.end = end;
+		}
+
+		public int read(ByteBuffer dst) throws IOException {
+			if (position >= end) {
+				return -1;
+			}
+			int oldLimit = dst.limit();
+			long remaining = end - position;
+			if (dst.remaining() > remaining) {
+				dst.limit(dst.position() + (int) remaining);
+			}
+			int n = fc.read(dst, position);
+			dst.limit(oldLimit);
+			if (n > 0) {
+				position += n;
+			}
+			return n;
+		}
+
+		public boolean isOpen() {
+			return fc.isOpen();
+		}
+
+		public void close() {
+			// the FileChannel is shared, it is closed by the owner
+		}
+	}
+
+	/**
+	 * Method to read the graph file using the given number of threads
+	 *
+	 * @param file
+	 *            : File - input file
+	 * @param threads
+	 *            : int - number of worker threads
+	 * @return ChunkedEdgeListReader holding the parsed edges
+	 * @throws IOException
+	 * @throws InputMismatchException
+	 *             if one of the first 3m integers of the body is not an
+	 *             integer
+	 * @throws NoSuchElementException
+	 *             if the file holds fewer than m edges
+	 */
+	public static ChunkedEdgeListReader read(File file, int threads)
+			throws IOException {
+		long startTime = System.nanoTime();
+		ChunkedEdgeListReader r = new ChunkedEdgeListReader();
+		try (FileChannel fc = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)) {
+			long size = fc.size();
+
+			// the header is read sequentially, the edges start right after it
+			EdgeListReader header = new EdgeListReader(new RangeChannel(fc, 0,
+					size));
+			r.numNodes = header.nextInt();
+			r.numEdges = header.nextInt();
+			long bodyStart = header.position();
+
+			// split the body into ranges starting and ending on whitespace,
+			// so that no integer is cut in two
+			int numChunks = (int) Math.max(1, Math.min(threads,
+					(size - bodyStart) / MIN_CHUNK_SIZE));
+			long[] bounds = new long[numChunks + 1];
+			bounds[0] = bodyStart;
+			bounds[numChunks] = size;
+			for (int i = 1; i < numChunks; i++) {
+				long approx = bodyStart + (size - bodyStart) * i / numChunks;
+				bounds[i] = Math.max(bounds[i - 1],
+						nextBoundary(fc, approx, size));
+			}
+
+			ExecutorService pool = Executors.newFixedThreadPool(numChunks);
+			try {
+				List<Future<Tokens>> futures = new ArrayList<>(numChunks);
+				for (int i = 0; i < numChunks; i++) {
+					RangeChannel range = new RangeChannel(fc, bounds[i],
+							bounds[i + 1]);
+					futures.add(pool.submit(() -> tokenize(range)));
+				}
+				// the ranges up to the one holding the last integer of the
+				// m-th edge are needed, an error in a later one is ignored
+				// as the sequential read never gets to it
+				long needed = 3L * r.numEdges;
+				List<Tokens> ranges = new ArrayList<>(numChunks);
+				long total = 0;
+				for (Future<Tokens> f : futures) {
+					if (total >= needed) {
+						break;
+					}
+					Tokens t = f.get();
+					t.first = total;
+					total += t.size;
+					ranges.add(t);
+					if (t.error != null && total < needed) {
+						throw t.error;
+					}
+				}
+				if (total < needed) {
+					throw new NoSuchElementException("Expected " + r.numEdges
+							+ " edges but found " + total / 3);
+				}
+
+				// every range makes the chunk of the triples starting in it
+				List<Future<Chunk>> chunks = new ArrayList<>(ranges.size());
+				for (int i = 0; i < ranges.size(); i++) {
+					int k = i;
+					chunks.add(pool.submit(() -> triples(ranges, k, needed)));
+				}
+				r.chunks = new ArrayList<>(ranges.size());
+				for (Future<Chunk> f : chunks) {
+					r.chunks.add(f.get());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new IOException(cause);
+			} finally {
+				pool.shutdown();
+			}
+			r.bytesRead = size;
+		}
+		r.elapsedNanos = System.nanoTime() - startTime;
+		return r;
+	}
+
+	/**
+	 * Method to read a graph sequentially into a single chunk, for input that
+	 * cannot be split such as the standard input
+	 *
+	 * @param in
+	 *            : EdgeListReader - input
+	 * @return ChunkedEdgeListReader holding the parsed edges
+	 * @throws IOException
+	 */
+	public static ChunkedEdgeListReader read(EdgeListReader in)
+			throws IOException {
+		return read(in, false, false);
+	}
+
+	/**
+	 * Method to read a graph sequentially into a single chunk, passing every
+	 * edge to an EulerPrecheck as it is read. Reading stops at the first edge
+	 * after which the graph can no longer pass the check, so a bad file is
+	 * rejected without being read to the end.
+	 *
+	 * @param in
+	 *            : EdgeListReader - input
+	 * @param directed
+	 *            : boolean - true if the edges are arcs
+	 * @param precheck
+	 *            : boolean - true to check the edges as they are read
+	 * @return ChunkedEdgeListReader holding the parsed edges, only those up to
+	 *         the rejecting edge if the check failed
+	 * @throws IOException
+	 */
+	public static ChunkedEdgeListReader read(EdgeListReader in,
+			boolean directed, boolean precheck) throws IOException {
+		ChunkedEdgeListReader r = new ChunkedEdgeListReader();
+		r.numNodes = in.nextInt();
+		r.numEdges = in.nextInt();
+		EulerPrecheck p = null;
+		if (precheck) {
+			p = new EulerPrecheck(r.numNodes, directed);
+			r.precheck = p;
+		}
+		Chunk c = new Chunk();
+		for (int i = 0; i < r.numEdges; i++) {
+			int u = in.nextInt();
+			int v = in.nextInt();
+			int w = in.nextInt();
+			c.add(u, v, w);
+			if (p != null) {
+				p.addEdge(u, v);
+				if (p.isRejected(r.numEdges - i - 1)) {
+					break;
+				}
+			}
+		}
+		in.close();
+		r.chunks = new ArrayList<>(1);
+		r.chunks.add(c);
+		r.bytesRead = in.bytesRead();
+		r.elapsedNanos = in.elapsedNanos();
+		return r;
+	}
+
+	/**
+	 * Method to find the first offset at or after the given one where no
+	 * integer is cut: the byte before it is whitespace
+	 *
+	 * @return offset right after the next whitespace byte, or end of file
+	 */
+	private static long nextBoundary(FileChannel fc, long offset, long size)
+			throws IOException {
+		if (offset == 0) {
+			return 0;
+		}
+		ByteBuffer buf = ByteBuffer.allocate(4096);
+		// look from offset-1 so a range already starting on whitespace is
+		// kept
+		long position = offset - 1;
+		while (position < size) {
+			buf.clear();
+			int n = fc.read(buf, position);
+			if (n <= 0) {
+				break;
+			}
+			for (int i = 0; i < n; i++) {
+				if (buf.get(i) <= ' ') {
+					return position + i + 1;
+				}
+			}
+			position += n;
+		}
+		return size;
+	}
+
+	/**
+	 * Tokens - Integers parsed from one byte range of the file
+	 *
+	 */
+	private static class Tokens {
+		int size; // number of integers parsed
+		int[] values = new int[3072]; // the integers in file order
+		long first; // index in the body of the first integer
+		RuntimeException error; // what stopped the parse, if not the end
+
+		void add(int x) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size << 1);
+			}
+			values[size++] = x;
+		}
+	}
+
+	/**
+	 * Method to parse the integers of one range. A bad token ends the range,
+	 * it is only an error if the integers before it are too few.
+	 */
+	private static Tokens tokenize(ReadableByteChannel range)
+			throws IOException {
+		EdgeListReader in = new EdgeListReader(range);
+		Tokens t = new Tokens();
+		try {
+			while (in.hasNext()) {
+				t.add(in.nextInt());
+			}
+		} catch (InputMismatchException e) {
+			t.error = e;
+		}
+		return t;
+	}
+
+	/**
+	 * Method to cut the triples that start in range k into a chunk, taking
+	 * the integers of a triple cut by the end of the range from the ranges
+	 * after it
+	 *
+	 * @param needed
+	 *            : long - 3m, the integers past it are ignored
+	 */
+	private static Chunk triples(List<Tokens> ranges, int k, long needed) {
+		Tokens t = ranges.get(k);
+		Chunk c = new Chunk();
+		// the first integer in this range that starts a triple
+		long j = (t.first + 2) / 3 * 3;
+		long end = Math.min(t.first + t.size, needed);
+		for (; j < end; j += 3) {
+			int i = (int) (j - t.first);
+			if (i + 2 < t.size) {
+				c.add(t.values[i], t.values[i + 1], t.values[i + 2]);
+			} else {
+				c.add(token(ranges, k, j), token(ranges, k, j + 1),
+						token(ranges, k, j + 2));
+			}
+		}
+		return c;
+	}
+
+	/**
+	 * Method to get the integer of the body at index j, which is in range k
+	 * or after it
+	 */
+	private static int token(List<Tokens> ranges, int k, long j) {
+		Tokens t = ranges.get(k);
+		while (j >= t.first + t.size) {
+			t = ranges.get(++k);
+		}
+		return t.values[(int) (j - t.first)];
+	}
+
+	/**
+	 * Method to get the number of bytes read
+	 *
+	 * @return size of the file
+	 */
+	public long bytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * Method to get the time spent reading and parsing the file
+	 *
+	 * @return nanoseconds
+	 */
+	public long elapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Method to get the parse rate of the file
+	 *
+	 * @return MB per second
+	 */
+	public double parseRate() {
+		if (elapsedNanos == 0) {
+			return 0;
+		}
+		return (bytesRead / (1024.0 * 1024.0)) / (elapsedNanos / 1e9);
+	}
+}
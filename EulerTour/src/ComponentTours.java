@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * ComponentTours - Euler tours of a graph made of several connected
+ * components, one tour (or path) per component. Euler.findEulerTour rejects
+ * such a graph as not connected; here the components are labelled once with
+ * the union-find of ParallelConnectivity, vertices without edges are left
+ * out, and every component is checked and solved on its own. The components
+ * are solved concurrently on a work-stealing pool, the largest first.
+ *
+ * Components share no vertex and no edge, so a context reset once for the
+ * whole graph serves any number of components one after the other: every
+ * worker takes one, instead of resetting a context per component.
+ * @author rameshsuthan
+ *
+ */
+public class ComponentTours {
+
+	/**
+	 * Component - a connected component of the graph and its tour
+	 *
+	 */
+	public static class Component {
+		public final int root; // smallest vertex, names the component
+		public int numEdges; // edges in the component
+		public int oddVertices; // vertices of odd degree
+		int[] odd = new int[2]; // the first two odd vertices, by name
+		public int[] tour; // ids of the edges in tour order, null if the
+							// component is not Eulerian
+		public int subCircuits; // sub circuits walked for the tour
+
+		Component(int root) {
+			this.root = root;
+		}
+
+		/**
+		 * @return true if the component has a Euler tour or Euler path
+		 */
+		public boolean isEulerian() {
+			return oddVertices == 0 || oddVertices == 2;
+		}
+	}
+
+	/**
+	 * Method to find the tour of every connected component of the graph
+	 *
+	 * @param g
+	 *            : Graph - undirected input graph
+	 * @param threads
+	 *            : int - number of worker threads
+	 * @return List<Component> - the components with at least one edge,
+	 *         ordered by their smallest vertex
+	 * @throws IllegalArgumentException
+	 *             if the graph is directed
+	 */
+	public static List<Component> solve(Graph g, int threads) {
+		if (g.directed) {
+			throw new IllegalArgumentException(
+					"Components of a directed graph are not supported");
+		}
+		List<Component> components = label(g);
+
+		// the workers take the largest components first, so a big one does
+		// not start last
+		int[] order = IntStream.range(0, components.size()).boxed()
+				.sorted(Comparator.comparingInt(i -> -components.get(i).numEdges))
+				.mapToInt(Integer::intValue).toArray();
+		ConcurrentLinkedQueue<EulerContext> contexts = new ConcurrentLinkedQueue<>();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.submit(
+					() -> IntStream.range(0, order.length).parallel()
+							.forEach(i -> {
+								Component c = components.get(order[i]);
+								if (c.isEulerian()) {
+									solve(g, c, contexts);
+								}
+							})).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdown();
+			EulerContext ctx;
+			while ((ctx = contexts.poll()) != null) {
+				ctx.release();
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * Method to label the connected components and count their edges and
+	 * odd vertices
+	 */
+	static List<Component> label(Graph g) {
+		AtomicIntegerArray parent = ParallelConnectivity.newForest(g.numNodes);
+		IntStream.range(0, g.numEdges).parallel().forEach(i -> {
+			Edge e = g.edges.get(i);
+			ParallelConnectivity.union(parent, e.From.name, e.To.name);
+		});
+
+		// the root of a component is its smallest vertex, so it is the first
+		// vertex of the component met in this loop
+		List<Component> components = new ArrayList<>();
+		int[] index = new int[g.numNodes + 1];
+		for (int v = 1; v <= g.numNodes; v++) {
+			int degree = g.verts.get(v).Adj.size();
+			if (degree == 0) {
+				continue;
+			}
+			int root = ParallelConnectivity.find(parent, v);
+			if (root == v) {
+				index[v] = components.size();
+				components.add(new Component(v));
+			}
+			Component c = components.get(index[root]);
+			c.numEdges += degree; // halved below, every edge has two ends
+			if (degree % 2 != 0) {
+				if (c.oddVertices < 2) {
+					c.odd[c.oddVertices] = v;
+				}
+				c.oddVertices++;
+			}
+		}
+		for (Component c : components) {
+			c.numEdges /= 2;
+		}
+		return components;
+	}
+
+	/**
+	 * Method to walk the tour of one Eulerian component with a context of
+	 * the workers
+	 */
+	private static void solve(Graph g, Component c,
+			ConcurrentLinkedQueue<EulerContext> contexts) {
+		EulerContext ctx = contexts.poll();
+		if (ctx == null) {
+			ctx = EulerContext.acquire();
+			ctx.reset(g);
+		}
+		int[] tour = new int[c.numEdges];
+		int[] size = new int[1];
+		// the tour comes out ending where the walk starts, a path is walked
+		// from its larger odd end to start at the smaller one
+		Vertex start = g.verts.get(c.oddVertices == 0 ? c.root : c.odd[1]);
+		c.subCircuits = StreamEulerTour.hierholzerAlgorithm(g, start,
+				e -> tour[size[0]++] = e.id, ctx);
+		c.tour = tour;
+		contexts.offer(ctx);
+	}
+
+	/**
+	 * Method to write the components, each as a "# component" line followed
+	 * by its tour. The line of a component that is not Eulerian gives its
+	 * number of odd vertices instead.
+	 *
+	 * @param g
+	 *            : Graph - graph of the components
+	 * @param components
+	 *            : List<Component> - solved components
+	 * @param out
+	 *            : TourWriter - where the tours are written
+	 * @throws IOException
+	 */
+	public static void write(Graph g, List<Component> components,
+			TourWriter out) throws IOException {
+		for (Component c : components) {
+			if (c.tour == null) {
+				out.writeLine("# component " + c.root + ": not Eulerian, "
+						+ c.oddVertices + " odd vertices");
+				continue;
+			}
+			out.writeLine("# component " + c.root + ": " + c.numEdges
+					+ " edges");
+			Consumer<Edge> sink = out.edgeSink();
+			for (int e : c.tour) {
+				sink.accept(g.edges.get(e));
+			}
+			out.finish();
+		}
+		out.flush();
+	}
+}
@@ -0,0 +1,374 @@
+import java.util.function.IntConsumer;
+
+/**
+ * CsrEulerTour - Finds the Euler Tour or Euler Path of a compact graph,
+ * walking the arcs of the CsrGraph with a cursor per vertex and a used bit
+ * per edge
+ * @author rameshsuthan
+ *
+ */
+public class CsrEulerTour {
+	/**
+	 * Method to find Euler tour or Euler path in the given compact graph if
+	 * it is Eulerian Graph
+	 *
+	 * @param g
+	 *            - input graph
+	 * @return int[]: ids of the edges in the Euler Tour or Euler Path
+	 */
+	public static int[] findEulerTour(CsrGraph g) {
+		int[] tour = new int[g.numEdges];
+		int[] size = new int[1];
+		if (!findEulerTour(g, e -> tour[size[0]++] = e)) {
+			return null;
+		}
+		return tour;
+	}
+
+	/**
+	 * Method to find Euler tour or Euler path in the given compact graph if
+	 * it is Eulerian Graph, handing the edges to the sink in tour order as
+	 * soon as their place in the tour is final
+	 *
+	 * @param g
+	 *            - input graph
+	 * @param sink
+	 *            - receives the ids of the edges in the tour
+	 * @return true if the graph is Eulerian and the tour was emitted
+	 */
+	public static boolean findEulerTour(CsrGraph g, IntConsumer sink) {
+		int sVertex = walkStart(g);
+		if (sVertex <= 0) {
+			return false;
+		}
+		hierholzerAlgorithm(g, sVertex, sink);
+		return true;
+	}
+
+	/**
+	 * Method to check that the compact graph has a Euler Tour or Euler Path
+	 * and to find the vertex hierholzerAlgorithm has to start from. The tour
+	 * comes out of hierholzerAlgorithm ending at the start vertex, so a
+	 * Euler path is walked from the larger numbered odd vertex to get the
+	 * path starting with the smaller one.
+	 *
+	 * @param g
+	 *            - input graph
+	 * @return vertex to start the walk from, 0 if the graph has no edge to
+	 *         tour, -1 if the graph is not Eulerian
+	 */
+	public static int walkStart(CsrGraph g) {
+		return walkStart(g, null);
+	}
+
+	/**
+	 * Method to find the vertex hierholzerAlgorithm has to start from, with
+	 * the connectivity and the parity check timed in stats
+	 *
+	 * @param g
+	 *            - input graph
+	 * @param stats
+	 *            - timings of the solve, null when not measured
+	 * @return vertex to start the walk from, 0 if the graph has no edge to
+	 *         tour, -1 if the graph is not Eulerian
+	 */
+	public static int walkStart(CsrGraph g, EulerStats stats) {
+		int[] eulerPathVertices = new int[2];
+		int eulerType;
+
+		if (!Euler.hasTour(g)) {
+			return 0;
+		}
+
+		if (stats != null) {
+			stats.graph(g);
+		}
+		EulerEvents.Connectivity connectivity = new EulerEvents.Connectivity();
+		connectivity.begin();
+		boolean connected = isConnected(g);
+		if (connectivity.shouldCommit()) {
+			connectivity.nodes = g.numNodes;
+			connectivity.connected = connected;
+			connectivity.commit();
+		}
+		if (stats != null) {
+			stats.lap(EulerStats.Phase.CONNECTIVITY);
+		}
+		if (!connected) {
+			return -1;
+		}
+		EulerEvents.ParityCheck parity = new EulerEvents.ParityCheck();
+		parity.begin();
+		eulerType = isEuler(g, eulerPathVertices);
+		if (parity.shouldCommit()) {
+			parity.nodes = g.numNodes;
+			parity.eulerType = eulerType;
+			parity.commit();
+		}
+		if (eulerType == -1) {
+			return -1;
+		}
+		if (stats != null) {
+			stats.lap(EulerStats.Phase.PARITY);
+		}
+		if (eulerType == 0) {
+			return 1;
+		}
+		return Math.max(eulerPathVertices[0], eulerPathVertices[1]);
+	}
+
+	/**
+	 * Method to find the euler tour (or the euler path, if sVertex is one of
+	 * the two odd degree vertices) in the given compact graph
+	 *
+	 * @param g
+	 *            - input graph(Must be a Euler Graph)
+	 * @param sVertex
+	 *            - vertex where the walk starts
+	 * @return int[]: ids of the edges in the tour, ending at sVertex
+	 */
+	public static int[] hierholzerAlgorithm(CsrGraph g, int sVertex) {
+		int[] tour = new int[g.numEdges];
+		int[] size = new int[1];
+		hierholzerAlgorithm(g, sVertex, e -> tour[size[0]++] = e);
+		return tour;
+	}
+
+	/**
+	 * Method to find the euler tour (or the euler path, if sVertex is one of
+	 * the two odd degree vertices) in the given compact graph. Uses the stack
+	 * based form of the Hierholzer algorithm: every vertex keeps a cursor into
+	 * its arcs and every edge a used bit, so each edge is consumed in O(1).
+	 * An edge is handed to the sink when it is popped from the stack, which
+	 * is when its place in the tour is final, so the tour is never held in
+	 * memory.
+	 *
+	 * @param g
+	 *            - input graph(Must be a Euler Graph)
+	 * @param sVertex
+	 *            - vertex where the walk starts
+	 * @param sink
+	 *            - receives the ids of the edges in the tour. The tour is
+	 *            emitted in reverse order of the walk, so it ends at sVertex.
+	 * @return number of sub circuits walked
+	 */
+	public static int hierholzerAlgorithm(CsrGraph g, int sVertex,
+			IntConsumer sink) {
+		if (g.isOffHeap()) {
+			// keep the working storage off the heap along with the graph
+			return hierholzerAlgorithm(g, sVertex, sink,
+					OffHeap.allocateLongs(g.numNodes + 1L),
+					OffHeap.allocateLongs((g.numEdges >>> 6) + 1),
+					OffHeap.allocateInts(g.numEdges + 1L),
+					OffHeap.allocateInts(g.numEdges + 1L));
+		}
+		return hierholzerAlgorithm(g, sVertex, sink,
+				LongArray.allocate(g.numNodes + 1L),
+				LongArray.allocate((g.numEdges >>> 6) + 1),
+				IntArray.allocate(g.numEdges + 1L),
+				IntArray.allocate(g.numEdges + 1L));
+	}
+
+	/**
+	 * Method to run the stack based Hierholzer walk on the given working
+	 * storage, which may live off the heap (see OffHeap)
+	 *
+	 * @param g
+	 *            - input graph(Must be a Euler Graph)
+	 * @param sVertex
+	 *            - vertex where the walk starts
+	 * @param sink
+	 *            - receives the ids of the edges in the tour
+	 * @param cursor
+	 *            - numNodes+1 longs, next arc to look at for every vertex
+	 * @param used
+	 *            - numEdges/64+1 zeroed longs, used bit for every edge
+	 * @param vertexStack
+	 *            - numEdges+1 ints for the vertices on the stack
+	 * @param edgeStack
+	 *            - numEdges+1 ints for the edges on the stack
+	 * @return number of sub circuits walked, counted as in
+	 *         hierholzerAlgorithm(Graph, Vertex, Consumer, EulerContext)
+	 */
+	public static int hierholzerAlgorithm(CsrGraph g, int sVertex,
+			IntConsumer sink, LongArray cursor, LongArray used,
+			IntArray vertexStack, IntArray edgeStack) {
+		for (int v = 0; v <= g.numNodes; v++) {
+			cursor.put(v, g.offsets.get(v));
+		}
+
+		// vertexStack[i] is reached from vertexStack[i-1] through edgeStack[i]
+		int top = 0;
+		vertexStack.put(0, sVertex);
+		boolean walking = false; // edges are being pushed
+		int start = 0; // depth the current sub circuit started at
+		int subCircuits = 0;
+		boolean hubs = EulerEvents.isHubEnabled();
+
+		while (top >= 0) {
+			int v = vertexStack.get(top);
+			long arc = cursor.get(v);
+			// the cursor only stays at the first arc until v is first left
+			boolean first = hubs && arc == g.offsets.get(v);
+			long end = g.offsets.get(v + 1);
+			int e = -1;
+			while (arc < end) {
+				e = g.arcEdge.get(arc);
+				if ((used.get(e >>> 6) & (1L << e)) == 0) {
+					break;
+				}
+				arc++;
+			}
+			if (arc < end) {
+				if (!walking) {
+					walking = true;
+					start = top;
+				}
+				used.put(e >>> 6, used.get(e >>> 6) | (1L << e));
+				cursor.put(v, arc + 1);
+				if (first && end - arc - 1 > EulerEvents.HUB_DEGREE) {
+					checkHub(g, v, arc + 1, used);
+				}
+				top++;
+				vertexStack.put(top, g.targets.get(arc));
+				edgeStack.put(top, e);
+			} else {
+				if (walking) {
+					walking = false;
+					subCircuits++;
+					EulerEvents.splice(top - start, v);
+				}
+				// no unused edge left at v, the edge that led here is final
+				cursor.put(v, arc);
+				if (top > 0) {
+					sink.accept(edgeStack.get(top));
+				}
+				top--;
+			}
+		}
+		return subCircuits;
+	}
+
+	/**
+	 * Method to report the vertex of the compact graph as a hub if it has
+	 * more unused edges than EulerEvents.HUB_DEGREE
+	 *
+	 * @param g
+	 *            - input graph
+	 * @param v
+	 *            - vertex the walk just left for the first time
+	 * @param arc
+	 *            - cursor of v, the arcs before it are used
+	 * @param used
+	 *            - used bit for every edge
+	 */
+	static void checkHub(CsrGraph g, int v, long arc, LongArray used) {
+		long end = g.offsets.get(v + 1);
+		EulerEvents.hub(v, g.degree(v), () -> {
+			int unused = 0;
+			for (long a = arc; a < end; a++) {
+				int e = g.arcEdge.get(a);
+				if ((used.get(e >>> 6) & (1L << e)) == 0) {
+					unused++;
+				}
+			}
+			return unused;
+		});
+	}
+
+	/**
+	 * Method to determine whether given compact graph is Euler graph or not
+	 *
+	 * @param g
+	 *            - input graph
+	 * @param eulerPathVertices
+	 *            - Array to store the odd degree vertices for the Euler Path
+	 * @return :0 if it has a Euler Tour, 1 if it has e Euler Path else return
+	 *         -1
+	 */
+	public static int isEuler(CsrGraph g, int[] eulerPathVertices) {
+		int noOfOddEdge = 0;
+		for (int u = 1; u <= g.numNodes; u++) {
+			if (g.degree(u) % 2 != 0) {
+				noOfOddEdge++;
+				if (noOfOddEdge > 2) {
+					return -1;
+				}
+				eulerPathVertices[noOfOddEdge - 1] = u;
+			}
+		}
+		return noOfOddEdge == 0 ? 0 : noOfOddEdge == 2 ? 1 : -1;
+	}
+
+	/**
+	 * Method to determine whether the given compact graph is connected or
+	 * not. Large graphs are checked in parallel by ParallelConnectivity.
+	 * Off heap graphs are checked with an off heap union-find.
+	 *
+	 * @param g
+	 *            - input graph
+	 * @return :true if the graph is connected,else return false
+	 */
+	public static boolean isConnected(CsrGraph g) {
+		if (g.isOffHeap()) {
+			// union-find in an off heap buffer, the heap stays flat
+			return isConnected(g, OffHeap.allocateInts(g.numNodes + 1L));
+		}
+		if (g.numEdges >= ParallelConnectivity.THRESHOLD) {
+			return ParallelConnectivity.isConnected(g);
+		}
+		// BFS from vertex 1 with an array queue, every vertex must be reached
+		boolean[] seen = new boolean[g.numNodes + 1];
+		int[] queue = new int[g.numNodes];
+		int head = 0, tail = 0;
+		queue[tail++] = 1;
+		seen[1] = true;
+
+		while (head < tail) {
+			int u = queue[head++];
+			for (long arc = g.offsets.get(u), end = g.offsets.get(u + 1); arc < end; arc++) {
+				int v = g.targets.get(arc);
+				if (!seen[v]) {
+					seen[v] = true;
+					queue[tail++] = v;
+				}
+			}
+		}
+		return tail == g.numNodes;
+	}
+
+	/**
+	 * Method to determine whether the given compact graph is connected with a
+	 * union-find kept in the given buffer, in one sequential pass over the
+	 * edges
+	 *
+	 * @param g
+	 *            - input graph
+	 * @param parent
+	 *            - numNodes+1 ints of working storage
+	 * @return :true if the graph is connected,else return false
+	 */
+	static boolean isConnected(CsrGraph g, IntArray parent) {
+		for (int v = 0; v <= g.numNodes; v++) {
+			parent.put(v, v);
+		}
+		int components = g.numNodes;
+		for (int e = 0; e < g.numEdges; e++) {
+			int a = find(parent, g.from.get(e));
+			int b = find(parent, g.to.get(e));
+			if (a != b) {
+				parent.put(Math.max(a, b), Math.min(a, b));
+				components--;
+			}
+		}
+		return components == 1;
+	}
+
+	private static int find(IntArray parent, int x) {
+		while (parent.get(x) != x) {
+			parent.put(x, parent.get(parent.get(x)));
+			x = parent.get(x);
+		}
+		return x;
+	}
+}
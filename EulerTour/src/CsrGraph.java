@@ -0,0 +1,380 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Scanner;
+
+/**
+ * CsrGraph - Compact (compressed sparse row) representation of an undirected
+ * graph. Vertices are numbered 1..numNodes and edges 0..numEdges-1 in the
+ * order they were added. No object is allocated per vertex or per edge: the
+ * edges are kept in three parallel int arrays and the incidence lists of all
+ * the vertices are stored back to back in two more int arrays.
+ * @author rameshsuthan
+ *
+ */
+public class CsrGraph {
+	public final int numNodes; // number of vertices in the graph
+	public final int numEdges; // number of edges in the graph
+
+	// The arrays are IntArrays so the graph can be backed by heap arrays, by
+	// off heap buffers or, without a copy, by a file mapped with
+	// BinaryGraphFile
+	final IntArray from; // one end of edge e
+	final IntArray to; // other end of edge e
+	final IntArray weight; // weight of edge e
+
+	// arcs of vertex v are stored at offsets[v] .. offsets[v+1]-1, there are
+	// 2*numEdges arcs so their positions are longs
+	final LongArray offsets;
+	final IntArray targets; // vertex at the other end of the arc
+	final IntArray arcEdge; // id of the edge the arc belongs to
+
+	/**
+	 * Method to lay out the incidence lists of the given edges. The arrays
+	 * live on the heap or off it like the edges.
+	 */
+	private static CsrGraph layout(int numNodes, int numEdges,
+			IntArray from, IntArray to, IntArray weight, boolean offHeap) {
+		// count the degree of every vertex, a self loop counts twice
+		LongArray offsets = offHeap ? OffHeap.allocateLongs(numNodes + 2L)
+				: LongArray.allocate(numNodes + 2L);
+		for (int e = 0; e < numEdges; e++) {
+			int u = from.get(e) + 1;
+			int v = to.get(e) + 1;
+			offsets.put(u, offsets.get(u) + 1);
+			offsets.put(v, offsets.get(v) + 1);
+		}
+		for (int v = 1; v <= numNodes + 1; v++) {
+			checkDegree(v - 1, offsets.get(v));
+			offsets.put(v, offsets.get(v) + offsets.get(v - 1));
+		}
+
+		// fill the arcs, keeping the edges of a vertex in input order
+		IntArray targets = offHeap ? OffHeap.allocateInts(2L * numEdges)
+				: IntArray.allocate(2L * numEdges);
+		IntArray arcEdge = offHeap ? OffHeap.allocateInts(2L * numEdges)
+				: IntArray.allocate(2L * numEdges);
+		LongArray next = offHeap ? OffHeap.allocateLongs(numNodes + 1L)
+				: LongArray.allocate(numNodes + 1L);
+		for (int v = 0; v <= numNodes; v++) {
+			next.put(v, offsets.get(v));
+		}
+		for (int e = 0; e < numEdges; e++) {
+			int u = from.get(e);
+			int v = to.get(e);
+			long arc = next.get(u);
+			targets.put(arc, v);
+			arcEdge.put(arc, e);
+			next.put(u, arc + 1);
+			arc = next.get(v);
+			targets.put(arc, u);
+			arcEdge.put(arc, e);
+			next.put(v, arc + 1);
+		}
+		return new CsrGraph(numNodes, numEdges, from, to, weight, offsets,
+				targets, arcEdge);
+	}
+
+	/**
+	 * Method to check that the degree of vertex v fits in the int returned
+	 * by degree()
+	 */
+	static void checkDegree(int v, long degree) {
+		if (degree > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Vertex " + v + " has "
+					+ degree + " arcs, more than an int degree can hold");
+		}
+	}
+
+	/**
+	 * Constructor for a graph whose arrays are already laid out, used by
+	 * BinaryGraphFile
+	 */
+	CsrGraph(int numNodes, int numEdges, IntArray from, IntArray to,
+			IntArray weight, LongArray offsets, IntArray targets,
+			IntArray arcEdge) {
+		this.numNodes = numNodes;
+		this.numEdges = numEdges;
+		this.from = from;
+		this.to = to;
+		this.weight = weight;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.arcEdge = arcEdge;
+	}
+
+	/**
+	 * Method to get the degree of the vertex
+	 *
+	 * @param v
+	 *            : int - vertex
+	 * @return number of arcs incident to v
+	 */
+	public int degree(int v) {
+		return (int) (offsets.get(v + 1) - offsets.get(v));
+	}
+
+	/**
+	 * Method to tell whether the arrays of the graph live outside the heap,
+	 * either allocated by OffHeap or mapped by BinaryGraphFile
+	 *
+	 * @return true if the graph is off heap
+	 */
+	public boolean isOffHeap() {
+		return offsets.isDirect();
+	}
+
+	/**
+	 * Method to find the other end of the edge given one of its ends
+	 *
+	 * @param e
+	 *            : int - edge id
+	 * @param u
+	 *            : int - one end of the edge
+	 * @return the other end of the edge
+	 */
+	public int otherEnd(int e, int u) {
+		return from.get(e) == u ? to.get(e) : from.get(e);
+	}
+
+	/**
+	 * Builder - collects the edges of the graph in flat arrays and lays them
+	 * out as a CsrGraph once all of them are known
+	 *
+	 */
+	public static class Builder {
+		private final int numNodes;
+		private int numEdges;
+		private int[] from, to, weight;
+
+		/**
+		 * Constructor for the Builder
+		 *
+		 * @param numNodes
+		 *            : int - number of vertices
+		 * @param expectedEdges
+		 *            : int - initial capacity for the edges
+		 */
+		public Builder(int numNodes, int expectedEdges) {
+			this.numNodes = numNodes;
+			int capacity = Math.max(expectedEdges, 16);
+			from = new int[capacity];
+			to = new int[capacity];
+			weight = new int[capacity];
+		}
+
+		/**
+		 * Method to add an edge to the graph
+		 *
+		 * @param a
+		 *            : int - one end of edge
+		 * @param b
+		 *            : int - other end of edge
+		 * @param w
+		 *            : int - the weight of the edge
+		 * @return id of the edge
+		 */
+		public int addEdge(int a, int b, int w) {
+			if (a < 1 || a > numNodes || b < 1 || b > numNodes) {
+				throw new IllegalArgumentException("Invalid edge (" + a + ","
+						+ b + ") for a graph with " + numNodes + " vertices");
+			}
+			if (numEdges == from.length) {
+				int capacity = from.length + (from.length >> 1);
+				from = Arrays.copyOf(from, capacity);
+				to = Arrays.copyOf(to, capacity);
+				weight = Arrays.copyOf(weight, capacity);
+			}
+			from[numEdges] = a;
+			to[numEdges] = b;
+			weight[numEdges] = w;
+			return numEdges++;
+		}
+
+		/**
+		 * Method to add a batch of edges to the graph
+		 *
+		 * @param a
+		 *            : int[] - one end of edge i
+		 * @param b
+		 *            : int[] - other end of edge i
+		 * @param w
+		 *            : int[] - the weight of edge i
+		 * @param count
+		 *            : int - number of edges in the batch
+		 */
+		public void addEdges(int[] a, int[] b, int[] w, int count) {
+			for (int i = 0; i < count; i++) {
+				if (a[i] < 1 || a[i] > numNodes || b[i] < 1 || b[i] > numNodes) {
+					throw new IllegalArgumentException("Invalid edge (" + a[i]
+							+ "," + b[i] + ") for a graph with " + numNodes
+							+ " vertices");
+				}
+			}
+			if (numEdges + count > from.length) {
+				int capacity = Math.max(numEdges + count,
+						from.length + (from.length >> 1));
+				from = Arrays.copyOf(from, capacity);
+				to = Arrays.copyOf(to, capacity);
+				weight = Arrays.copyOf(weight, capacity);
+			}
+			System.arraycopy(a, 0, from, numEdges, count);
+			System.arraycopy(b, 0, to, numEdges, count);
+			System.arraycopy(w, 0, weight, numEdges, count);
+			numEdges += count;
+		}
+
+		/**
+		 * Method to create the graph from the edges added so far
+		 *
+		 * @return CsrGraph
+		 */
+		public CsrGraph build() {
+			return layout(numNodes, numEdges, IntArray.wrap(trim(from)),
+					IntArray.wrap(trim(to)), IntArray.wrap(trim(weight)),
+					false);
+		}
+
+		private int[] trim(int[] a) {
+			return a.length == numEdges ? a : Arrays.copyOf(a, numEdges);
+		}
+	}
+
+	/**
+	 * Method to read an undirected graph in the same format as
+	 * Graph.readGraph: "n m" followed by m lines of "u v w"
+	 *
+	 * @param in
+	 *            : Scanner - input
+	 * @return CsrGraph
+	 */
+	public static CsrGraph readGraph(Scanner in) {
+		int n = in.nextInt(); // number of vertices in the graph
+		int m = in.nextInt(); // number of edges in the graph
+
+		Builder builder = new Builder(n, m);
+		for (int i = 0; i < m; i++) {
+			int u = in.nextInt();
+			int v = in.nextInt();
+			int w = in.nextInt();
+			builder.addEdge(u, v, w);
+		}
+		in.close();
+		return builder.build();
+	}
+
+	/**
+	 * Method to read an undirected graph through an EdgeListReader
+	 *
+	 * @param in
+	 *            : EdgeListReader - input
+	 * @return CsrGraph
+	 * @throws IOException
+	 */
+	public static CsrGraph readGraph(EdgeListReader in) throws IOException {
+		CsrGraph g = readNextGraph(in);
+		in.close();
+		return g;
+	}
+
+	/**
+	 * Method to read one graph from an input holding several of them back to
+	 * back. The reader is left open, positioned at the next graph.
+	 *
+	 * @param in
+	 *            : EdgeListReader - input
+	 * @return CsrGraph
+	 * @throws IOException
+	 */
+	public static CsrGraph readNextGraph(EdgeListReader in) throws IOException {
+		int n = in.nextInt(); // number of vertices in the graph
+		int m = in.nextInt(); // number of edges in the graph
+
+		Builder builder = new Builder(n, m);
+		for (int i = 0; i < m; i++) {
+			int u = in.nextInt();
+			int v = in.nextInt();
+			int w = in.nextInt();
+			builder.addEdge(u, v, w);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Method to build an undirected graph from a file parsed on several
+	 * threads by ChunkedEdgeListReader
+	 *
+	 * @param in
+	 *            : ChunkedEdgeListReader - parsed input
+	 * @return CsrGraph
+	 */
+	public static CsrGraph readGraph(ChunkedEdgeListReader in) {
+		Builder builder = new Builder(in.numNodes, in.numEdges);
+		for (ChunkedEdgeListReader.Chunk c : in.chunks) {
+			builder.addEdges(c.from, c.to, c.weight, c.size);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Method to read an undirected graph through an EdgeListReader straight
+	 * into off heap storage. The edges never pass through heap arrays, so
+	 * the heap used does not grow with the graph.
+	 *
+	 * @param in
+	 *            : EdgeListReader - input
+	 * @return CsrGraph whose arrays are allocated by OffHeap
+	 * @throws IOException
+	 */
+	public static CsrGraph readGraphOffHeap(EdgeListReader in)
+			throws IOException {
+		int n = in.nextInt(); // number of vertices in the graph
+		int m = in.nextInt(); // number of edges in the graph
+
+		IntArray from = OffHeap.allocateInts(m);
+		IntArray to = OffHeap.allocateInts(m);
+		IntArray weight = OffHeap.allocateInts(m);
+		for (int i = 0; i < m; i++) {
+			int u = in.nextInt();
+			int v = in.nextInt();
+			int w = in.nextInt();
+			checkEdge(n, u, v);
+			from.put(i, u);
+			to.put(i, v);
+			weight.put(i, w);
+		}
+		in.close();
+		return layout(n, m, from, to, weight, true);
+	}
+
+	/**
+	 * Method to build an undirected graph in off heap storage from a file
+	 * parsed on several threads by ChunkedEdgeListReader
+	 *
+	 * @param in
+	 *            : ChunkedEdgeListReader - parsed input
+	 * @return CsrGraph whose arrays are allocated by OffHeap
+	 */
+	public static CsrGraph readGraphOffHeap(ChunkedEdgeListReader in) {
+		IntArray from = OffHeap.allocateInts(in.numEdges);
+		IntArray to = OffHeap.allocateInts(in.numEdges);
+		IntArray weight = OffHeap.allocateInts(in.numEdges);
+		long at = 0;
+		for (ChunkedEdgeListReader.Chunk c : in.chunks) {
+			for (int i = 0; i < c.size; i++) {
+				checkEdge(in.numNodes, c.from[i], c.to[i]);
+			}
+			from.put(at, c.from, 0, c.size);
+			to.put(at, c.to, 0, c.size);
+			weight.put(at, c.weight, 0, c.size);
+			at += c.size;
+		}
+		return layout(in.numNodes, in.numEdges, from, to, weight, true);
+	}
+
+	private static void checkEdge(int numNodes, int a, int b) {
+		if (a < 1 || a > numNodes || b < 1 || b > numNodes) {
+			throw new IllegalArgumentException("Invalid edge (" + a + "," + b
+					+ ") for a graph with " + numNodes + " vertices");
+		}
+	}
+}
@@ -91,7 +91,9 @@ public class DoublyLinkedList<T> {
 		else if(index==head.next){
 			secHead.next.prev=tail;
 			secTail.next=head.next;
-			head.next=secHead.next;	
+			//the old first entry is now preceded by the merged list
+			index.prev=secTail;
+			head.next=secHead.next;
 		}
 		else{
 			DoublyLinkedList<T>.Entry<T> prevNode = index.prev;
@@ -125,7 +127,6 @@ public class DoublyLinkedList<T> {
 	public void printList(){
 		Entry<T> x=head.next;
 		while(x!=null){
-			//System.out.println( "["+x.prev+ "<-"+ x.element+"->"+x.next+"] ");
 			System.out.println(x.element);
 			x=x.next;
 		}
@@ -160,9 +161,6 @@ public class DoublyLinkedList<T> {
 		System.out.println("List3");
 		list3.printList();
 		
-		//list2.addAll(list3);
-		//list2.printList();
-		//list3.printList();
 		
 		list.mergeListBefore(index2,list2);
 		list.printList();
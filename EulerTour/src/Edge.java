@@ -9,7 +9,7 @@ public class Edge {
 	public Vertex From; // head vertex
 	public Vertex To; // tail vertex
 	public int Weight;// weight of the arc
-	public boolean traversed; // added for marking the edge as traversed during the euler tour
+	public int id; // position of the edge in the order it was added to the graph
 
 	/**
 	 * Constructor for Edge
@@ -25,7 +25,6 @@ public class Edge {
 		From = u;
 		To = v;
 		Weight = w;
-		traversed=false;
 	}
 
 	/**
@@ -62,26 +61,27 @@ public class Edge {
 		}
 	}
 
-	
-	
-	
-	
-@Override
+	/**
+	 * Method to compare edges by id. Parallel edges have the same ends but
+	 * different ids, so they are different edges.
+	 */
+	@Override
 	public boolean equals(Object obj) {
-		// TODO Auto-generated method stub
+		if (this == obj) {
+			return true;
+		}
 		if (obj instanceof Edge) {
-			Edge otherEdge = (Edge) obj;
-			if ( this==otherEdge ||(this.From.name==otherEdge.From.name && this.To.name==otherEdge.To.name)) {
-				return true;
-			}
-
+			return id == ((Edge) obj).id;
 		}
 		return false;
 	}
+
+	/**
+	 * Method to hash the edge by its id, ids are dense so they do not
+	 * collide
+	 */
 	@Override
 	public int hashCode() {
-		// TODO Auto-generated method stub
-		int hashCode=this.From.name*this.To.name;
-		return hashCode;
+		return id;
 	}
 }
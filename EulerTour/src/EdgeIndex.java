@@ -0,0 +1,168 @@
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * EdgeIndex - Index from the ends (u,v) of an edge to the ids of all the
+ * edges between u and v, for multigraphs with any number of parallel edges.
+ * It is an open addressing hash table with linear probing over primitive
+ * arrays: a slot holds the key of a pair of vertices and the first edge id
+ * of the pair, and the other edges of the pair are chained through one int
+ * per edge, in increasing id order. No object is allocated per edge, and a
+ * lookup costs a probe whatever the number of parallel edges.
+ *
+ * In an undirected graph (u,v) and (v,u) are the same pair.
+ * @author rameshsuthan
+ *
+ */
+public class EdgeIndex {
+	public static final int NIL = -1; // no edge
+
+	private static final long EMPTY = -1L; // key of a free slot
+
+	private final boolean directed;
+	private final long[] keys; // pair of vertices of the slot
+	private final int[] first; // first edge id of the pair in the slot
+	private final int[] next; // next edge id with the same ends, by id
+	private final int mask;
+
+	/**
+	 * Constructor for EdgeIndex over the edges of the graph
+	 *
+	 * @param g
+	 *            : Graph - graph to index
+	 */
+	public EdgeIndex(Graph g) {
+		this(g.numEdges, e -> g.edges.get(e).From.name,
+				e -> g.edges.get(e).To.name, g.directed);
+	}
+
+	/**
+	 * Constructor for EdgeIndex over the edges of the compact graph
+	 *
+	 * @param g
+	 *            : CsrGraph - graph to index
+	 */
+	public EdgeIndex(CsrGraph g) {
+		this(g.numEdges, g.from::get, g.to::get, false);
+	}
+
+	private EdgeIndex(int numEdges, IntUnaryOperator from,
+			IntUnaryOperator to, boolean directed) {
+		this.directed = directed;
+		// at most half full, so the probes stay short
+		long wanted = Math.max(16L, 2L * numEdges);
+		int capacity = (int) Math.min(1 << 30,
+				Long.highestOneBit(wanted - 1) << 1);
+		keys = new long[capacity];
+		first = new int[capacity];
+		next = new int[numEdges];
+		mask = capacity - 1;
+		Arrays.fill(keys, EMPTY);
+		// pushed to the front from the last id, so the chains are in id order
+		for (int e = numEdges - 1; e >= 0; e--) {
+			long key = key(from.applyAsInt(e), to.applyAsInt(e));
+			int slot = slot(key);
+			if (keys[slot] == EMPTY) {
+				keys[slot] = key;
+				next[e] = NIL;
+			} else {
+				next[e] = first[slot];
+			}
+			first[slot] = e;
+		}
+	}
+
+	private long key(int u, int v) {
+		if (!directed && u > v) {
+			int t = u;
+			u = v;
+			v = t;
+		}
+		return ((long) u << 32) | (v & 0xffffffffL);
+	}
+
+	/**
+	 * Method to find the slot of the key, or the free slot it goes in
+	 */
+	private int slot(long key) {
+		// finalizer of MurmurHash3, vertex numbers are far from random
+		long h = key;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		int slot = (int) h & mask;
+		while (keys[slot] != EMPTY && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Method to get the smallest id of the edges between u and v
+	 *
+	 * @param u
+	 *            : int - one end (the head of an arc)
+	 * @param v
+	 *            : int - other end (the tail of an arc)
+	 * @return edge id, NIL if there is no such edge
+	 */
+	public int first(int u, int v) {
+		long key = key(u, v);
+		int slot = slot(key);
+		return keys[slot] == key ? first[slot] : NIL;
+	}
+
+	/**
+	 * Method to get the next edge with the same ends as edge e
+	 *
+	 * @param e
+	 *            : int - edge id
+	 * @return next edge id, NIL after the last one
+	 */
+	public int next(int e) {
+		return next[e];
+	}
+
+	/**
+	 * Method to count the edges between u and v
+	 *
+	 * @param u
+	 *            : int - one end
+	 * @param v
+	 *            : int - other end
+	 * @return number of parallel edges
+	 */
+	public int count(int u, int v) {
+		int n = 0;
+		for (int e = first(u, v); e != NIL; e = next[e]) {
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Method to remove the first edge between u and v from the index and
+	 * return it, so that every call hands out a different parallel edge
+	 *
+	 * @param u
+	 *            : int - one end
+	 * @param v
+	 *            : int - other end
+	 * @return edge id, NIL once all the edges between u and v are taken
+	 */
+	public int take(int u, int v) {
+		long key = key(u, v);
+		int slot = slot(key);
+		if (keys[slot] != key) {
+			return NIL;
+		}
+		int e = first[slot];
+		if (e != NIL) {
+			// the key stays so the probe chains through the slot still work
+			first[slot] = next[e];
+		}
+		return e;
+	}
+}
@@ -0,0 +1,210 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * EdgeListReader - Reads the integers of a graph in the "n m" followed by m
+ * lines of "u v w" text format straight from the bytes of a channel. Unlike
+ * Scanner there is no regular expression and no String per token, the digits
+ * are folded into the int as they are read from the buffer.
+ * @author rameshsuthan
+ *
+ */
+public class EdgeListReader implements Closeable {
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final ReadableByteChannel channel;
+	private final byte[] buf = new byte[BUFFER_SIZE];
+	private final ByteBuffer buffer = ByteBuffer.wrap(buf);
+	private int pos; // next byte to read in buf
+	private int limit; // number of valid bytes in buf
+	private long bytesRead; // total bytes read from the channel
+	private long startTime = -1; // nanoTime of the first read
+	private long endTime; // nanoTime of the last read
+
+	/**
+	 * Constructor for EdgeListReader
+	 *
+	 * @param channel
+	 *            : ReadableByteChannel - input
+	 */
+	public EdgeListReader(ReadableByteChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Method to open a reader over the given file
+	 *
+	 * @param file
+	 *            : File - input file
+	 * @return EdgeListReader
+	 * @throws IOException
+	 */
+	public static EdgeListReader open(File file) throws IOException {
+		return new EdgeListReader(FileChannel.open(file.toPath(),
+				StandardOpenOption.READ));
+	}
+
+	/**
+	 * Method to refill the buffer from the channel
+	 *
+	 * @return false if the end of the input is reached
+	 */
+	private boolean fill() throws IOException {
+		if (startTime < 0) {
+			startTime = System.nanoTime();
+		}
+		buffer.clear();
+		int n;
+		do {
+			n = channel.read(buffer);
+		} while (n == 0);
+		endTime = System.nanoTime();
+		pos = 0;
+		limit = n < 0 ? 0 : n;
+		bytesRead += limit;
+		return n > 0;
+	}
+
+	/**
+	 * Method to read the next integer from the input. Integers are separated
+	 * by any whitespace and may have a leading '-'.
+	 *
+	 * @return the integer
+	 * @throws IOException
+	 * @throws NoSuchElementException
+	 *             if the input is exhausted
+	 * @throws InputMismatchException
+	 *             if the next token is not an integer or does not fit in an
+	 *             int
+	 */
+	public int nextInt() throws IOException {
+		int c;
+		// skip the whitespace before the token
+		do {
+			if (pos == limit && !fill()) {
+				throw new NoSuchElementException();
+			}
+			c = buf[pos++];
+		} while (c <= ' ');
+
+		boolean negative = c == '-';
+		if (negative) {
+			if (pos == limit && !fill()) {
+				throw new InputMismatchException("-");
+			}
+			c = buf[pos++];
+		}
+
+		// the digits are folded in negatively, as Integer.parseInt does, so
+		// that Integer.MIN_VALUE fits and an overflow is caught before it
+		// wraps
+		int value = 0;
+		while (true) {
+			if (c < '0' || c > '9') {
+				throw new InputMismatchException("Unexpected character '"
+						+ (char) c + "' at byte " + (bytesRead - limit + pos - 1));
+			}
+			int digit = c - '0';
+			if (value < Integer.MIN_VALUE / 10
+					|| value * 10 < Integer.MIN_VALUE + digit) {
+				throw outOfRange(negative);
+			}
+			value = value * 10 - digit;
+			if (pos == limit && !fill()) {
+				break;
+			}
+			c = buf[pos];
+			if (c <= ' ') {
+				break;
+			}
+			pos++;
+		}
+		if (!negative && value == Integer.MIN_VALUE) {
+			throw outOfRange(false);
+		}
+		return negative ? value : -value;
+	}
+
+	private InputMismatchException outOfRange(boolean negative) {
+		return new InputMismatchException((negative ? "Negative" : "Positive")
+				+ " integer out of range at byte " + position());
+	}
+
+	/**
+	 * Method to check whether there is another token in the input. The
+	 * whitespace before the token is consumed.
+	 *
+	 * @return true if a token follows
+	 * @throws IOException
+	 */
+	public boolean hasNext() throws IOException {
+		while (true) {
+			if (pos == limit && !fill()) {
+				return false;
+			}
+			if (buf[pos] > ' ') {
+				return true;
+			}
+			pos++;
+		}
+	}
+
+	/**
+	 * Method to get the number of bytes read so far
+	 *
+	 * @return bytes read from the channel
+	 */
+	public long bytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * Method to get the number of bytes consumed so far, the offset in the
+	 * input right after the last token read
+	 *
+	 * @return bytes consumed
+	 */
+	public long position() {
+		return bytesRead - limit + pos;
+	}
+
+	/**
+	 * Method to get the time spent reading and parsing the input so far
+	 *
+	 * @return nanoseconds from the first read to the last read, or to the
+	 *         close of the reader
+	 */
+	public long elapsedNanos() {
+		return startTime < 0 ? 0 : endTime - startTime;
+	}
+
+	/**
+	 * Method to get the parse rate of the input so far
+	 *
+	 * @return MB per second, 0 if nothing was read yet
+	 */
+	public double parseRate() {
+		long nanos = elapsedNanos();
+		if (nanos == 0) {
+			return 0;
+		}
+		return (bytesRead / (1024.0 * 1024.0)) / (nanos / 1e9);
+	}
+
+	/**
+	 * Method to close the underlying channel
+	 */
+	public void close() throws IOException {
+		if (startTime >= 0) {
+			endTime = System.nanoTime();
+		}
+		channel.close();
+	}
+}
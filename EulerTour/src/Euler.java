@@ -1,40 +1,108 @@
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Paths;
 import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Scanner;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
  * Euler - Class contains Methods to find the Euler Tour or Euler Path in the
- * Given Graph
+ * Given Graph. The other engines are in IndexedEulerTour, StreamEulerTour,
+ * CsrEulerTour and ParallelEulerTour, the flags of main in EulerOptions.
  * @author rameshsuthan
  *
  */
 public class Euler {
+	// status line of a graph that has no Euler tour or Euler path
+	static final String NOT_EULERIAN = "Graph is not Eulerian";
+
+	/**
+	 * Method to check whether the graph has edges to tour. A graph without
+	 * edges, or an undirected graph with a single vertex, has no tour to
+	 * find: the engines return none and do not count it as non Eulerian.
+	 * 
+	 * @param g
+	 *            - input graph
+	 * @return true if the engines look for a tour of g
+	 */
+	static boolean hasTour(Graph g) {
+		return g.numEdges > 0 && g.numNodes > (g.directed ? 0 : 1);
+	}
+
+	/**
+	 * Method to check whether the compact graph has edges to tour
+	 * 
+	 * @param g
+	 *            - input graph
+	 * @return true if the engines look for a tour of g
+	 */
+	static boolean hasTour(CsrGraph g) {
+		return g.numEdges > 0 && g.numNodes > 1;
+	}
 
 	/**
 	 * Method to the get the next unused Edges in the Euler Tour
 	 * 
 	 * @param vertexWithUnusedEdgeList
+	 * @param ctx
+	 *            - scratch state of the search
 	 * @return :vertex with unused Edges
 	 */
 	public static Vertex getNextVertexWithUnusedEdges(
-			LinkedList<Vertex> vertexWithUnusedEdgeList) {
+			LinkedList<Vertex> vertexWithUnusedEdgeList, EulerContext ctx) {
 		Vertex v = null;
 
 		if (vertexWithUnusedEdgeList.size() == 0) {
 			return v;
 		}
 
-		while ((v = vertexWithUnusedEdgeList.pollLast()) != null) {
-			if (v.unUsedEdges.size() > 0) {
+		// a vertex stays in the list until all its edges are used, a hub
+		// can be the start of many sub circuits
+		while ((v = vertexWithUnusedEdgeList.peekLast()) != null) {
+			if (nextUnusedEdge(v, ctx) != null) {
 				return v;
 			}
+			vertexWithUnusedEdgeList.pollLast();
 		}
 		return v;
 	}
 
+	/**
+	 * Method to get the next unused edge of the vertex. The cursor of the
+	 * vertex is moved past the used edges, so over the whole tour every edge
+	 * in Adj is skipped at most once. The fake edge of the context, if any,
+	 * comes after the edges in Adj.
+	 * 
+	 * @param u
+	 *            - vertex
+	 * @param ctx
+	 *            - scratch state of the search
+	 * @return :next unused edge of u, null if all of them are used
+	 */
+	static Edge nextUnusedEdge(Vertex u, EulerContext ctx) {
+		int i = ctx.cursor[u.name];
+		int degree = u.Adj.size();
+		while (i < degree) {
+			Edge e = u.Adj.get(i);
+			if (!ctx.isUsed(e)) {
+				ctx.cursor[u.name] = i;
+				return e;
+			}
+			i++;
+		}
+		ctx.cursor[u.name] = i;
+		Edge fake = ctx.fakeEdge;
+		if (fake != null && fake.isEdgeContains(u) && !ctx.isUsed(fake)) {
+			return fake;
+		}
+		return null;
+	}
+
 	/**
 	 * Method to Join the full tour with the current tour before the joinVertex
 	 * 
@@ -42,23 +110,26 @@ public class Euler {
 	 *            - List of edges in Full Tour
 	 * @param currentTour
 	 *            - List of edges in the current Tour
-	 * @param joinVertex
-	 *            - current Tour will be joined before the first edge containing
-	 *            join Vertex
+	 * @param joinIndex
+	 *            - current Tour will be joined before this entry, the first
+	 *            edge containing the join Vertex
 	 */
 	public static void joinTour(DoublyLinkedList<Edge> fullTour,
-			DoublyLinkedList<Edge> currentTour, Vertex joinVertex) {
+			DoublyLinkedList<Edge> currentTour,
+			DoublyLinkedList<Edge>.Entry<Edge> joinIndex) {
 		// For first join the full tour is emtpy we can add as it is
 		if (fullTour.size == 0) {
 			fullTour.mergeListBefore(fullTour.head.next, currentTour);
 			return;
 		}
-		fullTour.mergeListBefore(joinVertex.index, currentTour);
+		fullTour.mergeListBefore(joinIndex, currentTour);
 	}
 
 	/**
 	 * Method to find the euler tour in the given graph g and starting at the
-	 * vertex sVertex
+	 * vertex sVertex. The graph is not modified: the edges are consumed
+	 * through a cursor per vertex and a used bit per edge, so each edge is
+	 * retired in O(1) and the same graph can be solved again.
 	 * 
 	 * @param g
 	 *            - Input Graph(Must be a Euler Graph)
@@ -69,40 +140,75 @@ public class Euler {
 	 */
 	public static DoublyLinkedList<Edge> hierholzerAlgorithm(Graph g,
 			Vertex sVertex) {
+		EulerContext ctx = EulerContext.acquire();
+		try {
+			ctx.reset(g);
+			return hierholzerAlgorithm(g, sVertex, ctx);
+		} finally {
+			ctx.release();
+		}
+	}
+
+	/**
+	 * Method to find the euler tour in the given graph g and starting at the
+	 * vertex sVertex, with the scratch state kept in the given context
+	 * 
+	 * @param g
+	 *            - Input Graph(Must be a Euler Graph, with the fake edge of
+	 *            the context)
+	 * @param sVertex
+	 *            - Source Vertex from where the tour starts
+	 * @param ctx
+	 *            - scratch state, reset for g
+	 * @return DoublyLinkedList<Edge>: containing the list of edges in the euler
+	 *         tour.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static DoublyLinkedList<Edge> hierholzerAlgorithm(Graph g,
+			Vertex sVertex, EulerContext ctx) {
 		Vertex currVertex = sVertex;
 
 		DoublyLinkedList<Edge> currentTour = new DoublyLinkedList<Edge>();
 		DoublyLinkedList<Edge> fullTour = new DoublyLinkedList<Edge>();
 
+		// index of First edge containing the vertex in the tour.
+		// to achieve O(1) Run Time for Merging the tours
+		DoublyLinkedList<Edge>.Entry<Edge>[] index = new DoublyLinkedList.Entry[g.numNodes + 1];
+
 		LinkedList<Vertex> vertexWithUnusedEdgeList = new LinkedList<Vertex>();
 		Vertex nextVertex = null;
+		int subCircuits = 0;
 
 		while (currVertex != null) {
 
-			Edge edge = currVertex.unUsedEdges.remove(0);
+			Edge edge = nextUnusedEdge(currVertex, ctx);
+			ctx.use(edge);
 
 			DoublyLinkedList<Edge>.Entry<Edge> indexInTour = currentTour
 					.addAndGetIndex(edge);
-			if (currVertex.unUsedEdges.size() > 0 && currVertex.index == null) {
-				currVertex.index = indexInTour;
+			if (index[currVertex.name] == null
+					&& nextUnusedEdge(currVertex, ctx) != null) {
+				index[currVertex.name] = indexInTour;
 				vertexWithUnusedEdgeList.add(currVertex);
+				checkHub(currVertex, ctx);
 			}
 
 			nextVertex = edge.otherEnd(currVertex);
-			nextVertex.unUsedEdges.remove(edge);
 			currVertex = nextVertex;
 
 			if (nextVertex == sVertex) {
-				// System.out.println("Found circuit Starting at:"+sVertex);
-				joinTour(fullTour, currentTour, sVertex);
-				sVertex = getNextVertexWithUnusedEdges(vertexWithUnusedEdgeList);
+				EulerEvents.splice(currentTour.size, sVertex.name);
+				joinTour(fullTour, currentTour, index[sVertex.name]);
+				subCircuits++;
+				sVertex = getNextVertexWithUnusedEdges(
+						vertexWithUnusedEdgeList, ctx);
 				currVertex = sVertex;
-
-				// fullTour.addAll(currentTour);
-
 			}
 		}
 
+		if (ctx.stats != null) {
+			ctx.stats.subCircuits += subCircuits;
+		}
 		return fullTour;
 
 	}
@@ -117,69 +223,194 @@ public class Euler {
 	 *         Euler Path
 	 */
 	public static DoublyLinkedList<Edge> findEulerTour(Graph g) {
-		// check the connectedness and eulerian or not.
-		DoublyLinkedList<Edge> eulerTour = null;
+		EulerContext ctx = EulerContext.acquire();
+		try {
+			return findEulerTour(g, null, ctx);
+		} finally {
+			ctx.release();
+		}
+	}
 
-		Vertex[] eulerPathVertices = new Vertex[2];
-		long startTime = System.currentTimeMillis();
+	/**
+	 * Method to find Euler tour or Euler path in the given graph if it is
+	 * Eulerian Graph, starting at the given vertex. The graph is not
+	 * modified, all the state of the search is kept in ctx, so the same graph
+	 * can be solved by several threads at once, each with its own context.
+	 * 
+	 * @param g
+	 *            - input graph
+	 * @param start
+	 *            - vertex the tour starts at, null for vertex 1 (or the
+	 *            smaller numbered odd degree vertex of a Euler Path)
+	 * @param ctx
+	 *            - scratch state of the search
+	 * @return DoublyLinkedList<Edge>: List consisting of edges in Euler Tour or
+	 *         Euler Path
+	 * @throws IllegalArgumentException
+	 *             if the graph has a Euler Path and start is not one of its
+	 *             ends
+	 */
+	public static DoublyLinkedList<Edge> findEulerTour(Graph g, Vertex start,
+			EulerContext ctx) {
+		// check the connectedness and eulerian or not.
+		Vertex[] ends = new Vertex[2];
 		int eulerType;
-		
-		if(g.numNodes==0||g.numNodes==1||g.numEdges==0){
-			//System.out.println("Null graph");
+
+		if (!hasTour(g)) {
 			return null;
 		}
-		
-		if (!isConnected(g)
-				|| (eulerType = isEuler(g, eulerPathVertices)) == -1) {
-			System.out.println("Graph is not Eulerian");
+
+		if (g.directed) {
+			DoublyLinkedList<Edge> tour = new DoublyLinkedList<Edge>();
+			return findDirectedEulerTour(g, start, tour::add, ctx) ? tour
+					: null;
+		}
+
+		ctx.reset(g);
+		if ((eulerType = findEnds(g, start, ends, ctx)) == -1) {
 			return null;
 		}
-		long endTime = System.currentTimeMillis();
-		// System.out.println("Time to find the connectedness of the graph and Eulerian graph:"+
-		// (endTime - startTime) + " ms");
+		if (eulerType == 0) {
+			DoublyLinkedList<Edge> eulerTour = hierholzerAlgorithm(g, ends[0],
+					ctx);
+			lap(ctx, EulerStats.Phase.TOUR);
+			return eulerTour;
+		}
+
+		// There is a Euler path. A fake edge between the odd degree vertices
+		// turns it into a Euler circuit. The edge is only known to the
+		// context, the search takes it after all the edges in Adj.
+		Edge fakeEdge = new Edge(ends[0], ends[1], 1);
+		fakeEdge.id = g.numEdges;
+		ctx.fakeEdge = fakeEdge;
+		DoublyLinkedList<Edge> eulerTour = hierholzerAlgorithm(g, ends[0], ctx);
+		lap(ctx, EulerStats.Phase.TOUR);
 
-		startTime = System.currentTimeMillis();
+		// After getting the euler Tour, create a euler path by removing the
+		// fake edge and Folding the paths of the ciruits
+		EulerEvents.PathFold fold = new EulerEvents.PathFold();
+		fold.begin();
+		DoublyLinkedList<Edge> eulerPath = getEulerPath(eulerTour, fakeEdge,
+				ends[0]);
+		if (fold.shouldCommit()) {
+			fold.edges = eulerPath.size;
+			fold.commit();
+		}
+		lap(ctx, EulerStats.Phase.PATH);
+		return eulerPath;
+	}
+
+	/**
+	 * Method to check that the undirected graph has a Euler Tour or Euler
+	 * Path and to find its ends
+	 * 
+	 * @param g
+	 *            - input graph
+	 * @param start
+	 *            - requested start vertex, null for the default
+	 * @param ends
+	 *            - gets the start vertex and, for a Euler Path, the vertex
+	 *            it ends at
+	 * @param ctx
+	 *            - scratch state, reset for g
+	 * @return :0 if it has a Euler Tour, 1 if it has e Euler Path else return
+	 *         -1
+	 */
+	static int findEnds(Graph g, Vertex start, Vertex[] ends, EulerContext ctx) {
+		int eulerType;
+		if (ctx.stats != null) {
+			ctx.stats.graph(g);
+		}
+		EulerEvents.Connectivity connectivity = new EulerEvents.Connectivity();
+		connectivity.begin();
+		boolean connected = isConnected(g, ctx);
+		if (connectivity.shouldCommit()) {
+			connectivity.nodes = g.numNodes;
+			connectivity.connected = connected;
+			connectivity.commit();
+		}
+		lap(ctx, EulerStats.Phase.CONNECTIVITY);
+		if (!connected) {
+			return -1;
+		}
+		EulerEvents.ParityCheck parity = new EulerEvents.ParityCheck();
+		parity.begin();
+		eulerType = isEuler(g, ends);
+		if (parity.shouldCommit()) {
+			parity.nodes = g.numNodes;
+			parity.eulerType = eulerType;
+			parity.commit();
+		}
+		if (eulerType == -1) {
+			return -1;
+		}
+		lap(ctx, EulerStats.Phase.PARITY);
 		if (eulerType == 0) {
-			eulerTour = hierholzerAlgorithm(g, g.verts.get(1));
-		} else {
-			// There is a Euler path
-			int startVertex, endVertex;
-
-			// following condition is added to make sure that we start with
-			// smaller numbered node of odd degree
-			if (eulerPathVertices[0].name < eulerPathVertices[1].name) {
-				startVertex = eulerPathVertices[0].name;
-				endVertex = eulerPathVertices[1].name;
-			} else {
-				startVertex = eulerPathVertices[1].name;
-				endVertex = eulerPathVertices[0].name;
+			ends[0] = start != null ? start : g.verts.get(1);
+			return 0;
+		}
+		// by default start with the smaller numbered node of odd degree
+		Vertex sVertex = ends[0];
+		Vertex eVertex = ends[1];
+		if (start == null ? sVertex.name > eVertex.name : start == eVertex) {
+			sVertex = ends[1];
+			eVertex = ends[0];
+		} else if (start != null && start != sVertex) {
+			throw new IllegalArgumentException("Euler path from " + sVertex
+					+ " to " + eVertex + " cannot start at " + start);
+		}
+		ends[0] = sVertex;
+		ends[1] = eVertex;
+		return 1;
+	}
+
+	/**
+	 * Method to end a phase in the stats of the context, if it has any
+	 * 
+	 * @param ctx
+	 *            - scratch state of the search
+	 * @param phase
+	 *            - phase that just ended
+	 */
+	static void lap(EulerContext ctx, EulerStats.Phase phase) {
+		if (ctx.stats != null) {
+			ctx.stats.lap(phase);
+		}
+	}
+
+	/**
+	 * Method to report the vertex as a hub if it has more unused edges than
+	 * EulerEvents.HUB_DEGREE
+	 * 
+	 * @param v
+	 *            - vertex the walk just left for the first time
+	 * @param ctx
+	 *            - scratch state of the search
+	 */
+	static void checkHub(Vertex v, EulerContext ctx) {
+		// the edges before the cursor are used, those after it may be
+		if (v.Adj.size() - ctx.cursor[v.name] > EulerEvents.HUB_DEGREE) {
+			EulerEvents.hub(v.name, v.Adj.size(), () -> unusedEdges(v, ctx));
+		}
+	}
+
+	/**
+	 * Method to count the edges of the vertex that are not in the tour yet
+	 * 
+	 * @param v
+	 *            - vertex
+	 * @param ctx
+	 *            - scratch state of the search
+	 * @return number of unused edges in Adj of v
+	 */
+	static int unusedEdges(Vertex v, EulerContext ctx) {
+		int unused = 0;
+		for (int i = ctx.cursor[v.name]; i < v.Adj.size(); i++) {
+			if (!ctx.isUsed(v.Adj.get(i))) {
+				unused++;
 			}
-			// Adding a fake edge between the Odd Degree Vertices to convert to
-			// create a Euler ciruit in the graph
-			// System.out.println("Adding edge for euler path:" + startVertex
-			// "<->" + endVertex);
-			Edge fakeEdge = g.addEdge(startVertex, endVertex, 1);
-			Vertex sVertex = g.verts.get(startVertex);
-			Vertex eVertex = g.verts.get(endVertex);
-			// Call the hierholzerAlgorithm after adding the fake edge.
-			eulerTour = hierholzerAlgorithm(g, sVertex);
-
-			// After getting the euler Tour, create a euler path by removing the
-			// fake edge
-			// and Folding the paths of the ciruits
-			eulerTour = getEulerPath(eulerTour, fakeEdge,
-					g.verts.get(startVertex));
-
-			// Remove the fake edge from the graph
-			sVertex.Adj.remove(fakeEdge);
-			eVertex.Adj.remove(fakeEdge);
-
-		}
-		endTime = System.currentTimeMillis();
-		// System.out.println("Total Time to find the Euler Tour alone:"+
-		// (endTime - startTime) + " ms");
-		// System.out.println(eulerTour.tail);
-		return eulerTour;
+		}
+		return unused;
 	}
 
 	public static DoublyLinkedList<Edge> getEulerPath(
@@ -190,16 +421,19 @@ public class Euler {
 		DoublyLinkedList<Edge> list2 = new DoublyLinkedList<Edge>();
 		DoublyLinkedList<Edge>.Entry<Edge> edgeNode;
 
-		// System.out.println("Actual Euler Tour" + eulerTour.size);
-		// eulerTour.printList();
 		edgeNode = eulerTour.head.next;
 
-		// List 1 - add all the edges until the fake edge
+		// List 1 - add all the edges until the fake edge, following the walk
+		// to know at which end the tour takes the fake edge. Looking at the
+		// edges next to the fake edge is not enough when there are parallel
+		// edges or self loops.
+		Vertex fakeFrom = startVertex;
 		while (edgeNode != null) {
 			if (edgeNode.element == fakeEdge) {
 				break;
 			}
 			list1.add(edgeNode.element);
+			fakeFrom = edgeNode.element.otherEnd(fakeFrom);
 			edgeNode = edgeNode.next;
 		}
 
@@ -211,7 +445,7 @@ public class Euler {
 		// List1(A1->....->A1)->fakeEdge(A1,B1)-> List2(B2->....->A2)
 		// List1 + Reversed (List2)
 		// A1->....->A1 + A2->........->B2
-		if (edgeNode != null && !edgeNode.element.isEdgeContains(startVertex)) {
+		if (edgeNode != null && fakeFrom == startVertex) {
 			// add all the remaining edge in the reverse order from the tail
 			// until the fake edge
 			edgeNode = eulerTour.tail;
@@ -233,7 +467,7 @@ public class Euler {
 		// List1(A1->....->B1)->fakeEdge(A,B)-> List2(A2->....->A2)
 		// List2 + List11
 		// A2->....->A2 + A1->........->B1
-		if (edgeNode != null && edgeNode.element.isEdgeContains(startVertex)) {
+		if (edgeNode != null) {
 			while (edgeNode != null) {
 				if (edgeNode.element == fakeEdge) {
 					break;
@@ -263,64 +497,8 @@ public class Euler {
 	 * @return true - if it is a euler tour else returns false
 	 */
 	static boolean verifyTour(Graph g, DoublyLinkedList<Edge> tour, Vertex start) {
-		DoublyLinkedList<Edge>.Entry<Edge> node = tour.head.next;
-		int numOfEdgesTraversed = 0;
-		Vertex unMatchedVertex = null;
-		while (node != null) {
-			Edge e = node.element;
-
-			if (e.traversed) {
-				// System.out.println("Edge already visited" + e);
-				return false;
-			}
-
-			// for first edge
-			if (numOfEdgesTraversed == 0) {
-				unMatchedVertex = e.otherEnd(start);
-			}// for rest of the edges
-			else {
-				// the current edge should contain one vertex matching with
-				// previous edge
-				// and other vertex matching with the next edge
-				// unMatchedVertex stores the Vertex which is not matched witht
-				// the previous edge
-				if (node.element.From == unMatchedVertex) {
-					unMatchedVertex = node.element.To;
-				} else if (node.element.To == unMatchedVertex) {
-					unMatchedVertex = node.element.From;
-				} else {
-					// System.out.println("Edges not adjacent");
-					return false;
-				}
-			}
-			e.traversed = true;
-			node = node.next;
-			numOfEdgesTraversed++;
-		}
-
-		// Traverse all the edge in the graph to verify whether it has been
-		// visited or not
-		Iterator<Vertex> it = g.iterator();
-		// System.out.println(g.verts.size());
-		while (it.hasNext()) {
-			Vertex v = it.next();
-			// System.out.println(v);
-			for (Edge e : v.Adj) {
-				if (!e.traversed) {
-					// System.out.println("Edge not Traversed:" + e);
-					return false;
-				}
-			}
-		}
-
-		/*
-		 * if (start != unMatchedVertex) {
-		 * System.out.println("It is a Euler Path"); }
-		 */
-
-		// System.out.println("Number of Edges Traversed for Verify Tour:"+
-		// numOfEdgesTraversed);
-		return true;
+		// the edges in use are kept in a bitset, see TourVerifier
+		return TourVerifier.verify(g, tour, start);
 	}
 
 	/**
@@ -353,112 +531,717 @@ public class Euler {
 		}
 
 		if (noOfOddEdge == 0) {
-			// System.out.println("Graph has a Euler Tour");
 			return 0;
 		} else if (noOfOddEdge == 2) {
-			// System.out.println("Graph has a Euler Path");
 			return 1;
 		} else {
-			// System.out.println("Graph doen't have a Euler Tour or Euler Path");
 			return -1;
 		}
 	}
 
 	/**
-	 * Method to determine to find whether the given graph is connected or not
+	 * Method to determine to find whether the given graph is connected or not.
+	 * Large graphs are checked in parallel by ParallelConnectivity.
 	 * 
 	 * @param g
 	 *            - input graph
 	 * @return :true if the graph is connected,else return false
 	 */
 	public static boolean isConnected(Graph g) {
-		// Do BFS - if the graph is connected all the vertex in the should have
-		// seen flag set to true
-		BFS(g, g.verts.get(1));
+		EulerContext ctx = EulerContext.acquire();
+		try {
+			ctx.reset(g);
+			return isConnected(g, ctx);
+		} finally {
+			ctx.release();
+		}
+	}
+
+	/**
+	 * Method to determine to find whether the given graph is connected or
+	 * not, marking the vertices in the given context
+	 * 
+	 * @param g
+	 *            - input graph
+	 * @param ctx
+	 *            - scratch state, reset for g
+	 * @return :true if the graph is connected,else return false
+	 */
+	public static boolean isConnected(Graph g, EulerContext ctx) {
+		if (g.numEdges >= ParallelConnectivity.THRESHOLD) {
+			return ParallelConnectivity.isConnected(g);
+		}
+		// Do BFS - if the graph is connected every vertex is reached
+		return BFS(g, g.verts.get(1), ctx) == g.numNodes;
+	}
+
+	/**
+	 * Method to perform BFS search on the graph, marking the vertices reached
+	 * in the context
+	 * 
+	 * @param g
+	 *            - input graph
+	 * @param src
+	 *            - startVertex
+	 * @param ctx
+	 *            - scratch state, reset for g
+	 * @return number of vertices reached
+	 */
+	public static int BFS(Graph g, Vertex src, EulerContext ctx) {
+		Vertex[] queue = ctx.queue;
+		int head = 0, tail = 0;
+		queue[tail++] = src;
+		ctx.visit(src);
+
+		while (head < tail) {
+			Vertex u = queue[head++];
+			for (Edge e : u.Adj) {
+				Vertex v = e.otherEnd(u);
+				if (ctx.visit(v)) {
+					queue[tail++] = v;
+				}
+			}
+		}
+		return tail;
+	}
+
+	/**
+	 * Method to find the directed Euler circuit or Euler path in the given
+	 * graph of arcs if there is one, handing the arcs to the sink in tour
+	 * order
+	 * 
+	 * @param g
+	 *            - input graph, built with addDirectedEdge
+	 * @param sink
+	 *            - receives the arcs in the Euler circuit or Euler path
+	 * @return true if the graph is Eulerian and the tour was emitted
+	 */
+	public static boolean findDirectedEulerTour(Graph g, Consumer<Edge> sink) {
+		EulerContext ctx = EulerContext.acquire();
+		try {
+			return findDirectedEulerTour(g, null, sink, ctx);
+		} finally {
+			ctx.release();
+		}
+	}
+
+	/**
+	 * Method to find the directed Euler circuit or Euler path in the given
+	 * graph of arcs, starting at the given vertex
+	 * 
+	 * @param g
+	 *            - input graph, built with addDirectedEdge
+	 * @param start
+	 *            - vertex the tour starts at, null for the default
+	 * @param sink
+	 *            - receives the arcs in the Euler circuit or Euler path
+	 * @param ctx
+	 *            - scratch state of the search
+	 * @return true if the graph is Eulerian and the tour was emitted
+	 * @throws IllegalArgumentException
+	 *             if the graph has a Euler Path and start is not its start
+	 */
+	public static boolean findDirectedEulerTour(Graph g, Vertex start,
+			Consumer<Edge> sink, EulerContext ctx) {
+		Vertex[] eulerPathVertices = new Vertex[2];
+		int eulerType;
+
+		if (!hasTour(g)) {
+			return false;
+		}
+
+		if (ctx.stats != null) {
+			ctx.stats.graph(g);
+		}
+		if ((eulerType = isDirectedEuler(g, eulerPathVertices)) == -1) {
+			return false;
+		}
+		lap(ctx, EulerStats.Phase.PARITY);
+		if (!isConnectedDirected(g)) {
+			return false;
+		}
+		lap(ctx, EulerStats.Phase.CONNECTIVITY);
+
+		Vertex tVertex;
+		if (eulerType == 0 && start != null) {
+			tVertex = start;
+		} else if (eulerType == 0) {
+			// the circuit starts and ends at the first vertex with arcs
+			tVertex = null;
+			Iterator<Vertex> it = g.iterator();
+			while (tVertex == null) {
+				Vertex u = it.next();
+				if (u.Adj.size() > 0) {
+					tVertex = u;
+				}
+			}
+		} else if (start != null && start != eulerPathVertices[0]) {
+			throw new IllegalArgumentException("Euler path from "
+					+ eulerPathVertices[0] + " to " + eulerPathVertices[1]
+					+ " cannot start at " + start);
+		} else {
+			tVertex = eulerPathVertices[1];
+		}
+		ctx.reset(g);
+		int subCircuits = directedHierholzerAlgorithm(g, tVertex, sink, ctx);
+		if (ctx.stats != null) {
+			ctx.stats.subCircuits += subCircuits;
+		}
+		lap(ctx, EulerStats.Phase.TOUR);
+		return true;
+	}
+
+	/**
+	 * Method to find the directed euler circuit (or the euler path, if
+	 * tVertex is the vertex with one more incoming than outgoing arc). The
+	 * stack based Hierholzer walk follows the arcs backwards, through revAdj,
+	 * so the arcs popped from the stack come out in forward tour order and
+	 * the tour ends at tVertex. Every arc is in exactly one revAdj list, so a
+	 * cursor per vertex is enough to consume each arc in O(1).
+	 * 
+	 * @param g
+	 *            - input graph(Must be a directed Euler Graph)
+	 * @param tVertex
+	 *            - vertex where the tour ends
+	 * @param sink
+	 *            - receives the arcs in the tour
+	 * @return number of sub circuits walked
+	 */
+	public static int directedHierholzerAlgorithm(Graph g, Vertex tVertex,
+			Consumer<Edge> sink) {
+		EulerContext ctx = EulerContext.acquire();
+		try {
+			ctx.reset(g);
+			return directedHierholzerAlgorithm(g, tVertex, sink, ctx);
+		} finally {
+			ctx.release();
+		}
+	}
+
+	/**
+	 * Method to run the backward walk with the cursors and the stacks of the
+	 * given context
+	 * 
+	 * @param g
+	 *            - input graph(Must be a directed Euler Graph)
+	 * @param tVertex
+	 *            - vertex where the tour ends
+	 * @param sink
+	 *            - receives the arcs in the tour
+	 * @param ctx
+	 *            - scratch state, reset for g
+	 * @return number of sub circuits walked, counted as in
+	 *         hierholzerAlgorithm
+	 */
+	public static int directedHierholzerAlgorithm(Graph g, Vertex tVertex,
+			Consumer<Edge> sink, EulerContext ctx) {
+		int[] cursor = ctx.cursor;
+
+		// edgeStack[i] goes from vertexStack[i] to vertexStack[i-1]
+		Vertex[] vertexStack = ctx.vertexStack;
+		Edge[] edgeStack = ctx.edgeStack;
+		int top = 0;
+		vertexStack[0] = tVertex;
+		boolean walking = false; // arcs are being pushed
+		int start = 0; // depth the current sub circuit started at
+		int subCircuits = 0;
+
+		while (top >= 0) {
+			Vertex v = vertexStack[top];
+			if (cursor[v.name] < v.revAdj.size()) {
+				if (!walking) {
+					walking = true;
+					start = top;
+				}
+				if (cursor[v.name] == 0
+						&& v.revAdj.size() - 1 > EulerEvents.HUB_DEGREE) {
+					// an arc is only in revAdj of its head, so none of the
+					// arcs into v is used before the walk first leaves v
+					EulerEvents.hub(v.name, v.revAdj.size(),
+							() -> v.revAdj.size() - 1);
+				}
+				Edge e = v.revAdj.get(cursor[v.name]++);
+				top++;
+				vertexStack[top] = e.From;
+				edgeStack[top] = e;
+			} else {
+				if (walking) {
+					walking = false;
+					subCircuits++;
+					EulerEvents.splice(top - start, v.name);
+				}
+				// no unused arc left into v, the arc that led here is final
+				if (top > 0) {
+					sink.accept(edgeStack[top]);
+				}
+				edgeStack[top] = null;
+				vertexStack[top] = null;
+				top--;
+			}
+		}
+		return subCircuits;
+	}
+
+	/**
+	 * Method to determine whether given graph of arcs is a directed Euler
+	 * graph or not
+	 * 
+	 * @param g
+	 *            - input graph
+	 * @param eulerPathVertices
+	 *            - Array to store the start (out degree = in degree + 1) and
+	 *            the end (in degree = out degree + 1) of the Euler Path
+	 * @return :0 if it has a Euler circuit, 1 if it has e Euler Path else
+	 *         return -1
+	 */
+	public static int isDirectedEuler(Graph g, Vertex[] eulerPathVertices) {
+		Vertex start = null, end = null;
 		Iterator<Vertex> it = g.iterator();
 		while (it.hasNext()) {
 			Vertex u = it.next();
-			if (u.seen == false) {
-				// atleast one of the node in the graph has seen flag set to
-				// false
-				// graph is disconnected.
-				// System.out.println("Graph is disconnected");
-				return false;
+			int balance = u.Adj.size() - u.revAdj.size();
+			if (balance == 0) {
+				continue;
+			}
+			if (balance == 1 && start == null) {
+				start = u;
+			} else if (balance == -1 && end == null) {
+				end = u;
+			} else {
+				return -1;
 			}
 		}
-		// System.out.println("Graph is connected");
-		return true;
+
+		if (start == null && end == null) {
+			return 0;
+		} else if (start != null && end != null) {
+			eulerPathVertices[0] = start;
+			eulerPathVertices[1] = end;
+			return 1;
+		}
+		return -1;
 	}
 
 	/**
-	 * Method to perform BFS search on the graph and sets the seen flag in the
-	 * vertex to true
+	 * Method to determine whether the vertices with arcs in the given graph
+	 * are connected. The search follows the arcs both ways, which is enough:
+	 * once isDirectedEuler has checked the in and out degrees, a weakly
+	 * connected graph is strongly connected (with the arc from the end to
+	 * the start of the path added). Linear time, the graph is not modified.
 	 * 
 	 * @param g
 	 *            - input graph
-	 * @param src
-	 *            - startVertex
+	 * @return :true if the graph is connected,else return false
 	 */
-	public static void BFS(Graph g, Vertex src) {
+	public static boolean isConnectedDirected(Graph g) {
+		boolean[] seen = new boolean[g.numNodes + 1];
+		Vertex[] queue = new Vertex[g.numNodes];
+		int head = 0, tail = 0;
+		int nonIsolated = 0;
 
-		Queue<Vertex> queue = new LinkedList<Vertex>();
-		queue.add(src);
-		src.seen = true;
+		Iterator<Vertex> it = g.iterator();
+		while (it.hasNext()) {
+			Vertex u = it.next();
+			if (u.Adj.size() + u.revAdj.size() > 0) {
+				nonIsolated++;
+				if (tail == 0) {
+					queue[tail++] = u;
+					seen[u.name] = true;
+				}
+			}
+		}
 
-		while (!queue.isEmpty()) {
-			Vertex u = queue.remove();
-			// System.out.print(u.name+" ");
+		while (head < tail) {
+			Vertex u = queue[head++];
 			for (Edge e : u.Adj) {
-				Vertex v = e.otherEnd(u);
-				if (!v.seen) {
-					v.seen = true;
-					v.parent = u;
-					queue.add(v);
+				if (!seen[e.To.name]) {
+					seen[e.To.name] = true;
+					queue[tail++] = e.To;
 				}
 			}
+			for (Edge e : u.revAdj) {
+				if (!seen[e.From.name]) {
+					seen[e.From.name] = true;
+					queue[tail++] = e.From;
+				}
+			}
+		}
+		return tail == nonIsolated;
+	}
+
+	/**
+	 * Method to print the tour on the standard output through a TourWriter
+	 *
+	 * @param g
+	 *            - graph of the tour
+	 * @param tour
+	 *            - ids of the edges in the tour
+	 * @param format
+	 *            - how the tour is printed
+	 * @throws IOException
+	 */
+	public static void printTour(Graph g, IndexLinkedList tour,
+			TourWriter.Format format) throws IOException {
+		EulerEvents.Output event = new EulerEvents.Output();
+		event.begin();
+		TourWriter out = TourWriter.toStdout(format);
+		out.write(g, tour);
+		out.flush();
+		commitOutput(event, tour.size(), format);
+	}
+
+	/**
+	 * Method to print the tour on the standard output through a TourWriter
+	 *
+	 * @param tour
+	 *            - edges in the tour
+	 * @param format
+	 *            - how the tour is printed
+	 * @throws IOException
+	 */
+	public static void printTour(DoublyLinkedList<Edge> tour,
+			TourWriter.Format format) throws IOException {
+		EulerEvents.Output event = new EulerEvents.Output();
+		event.begin();
+		TourWriter out = TourWriter.toStdout(format);
+		out.write(tour);
+		out.flush();
+		commitOutput(event, tour.size, format);
+	}
+
+	/**
+	 * Method to commit the output event, if it is enabled
+	 *
+	 * @param event
+	 *            - event begun before the output
+	 * @param edges
+	 *            - edges written
+	 * @param format
+	 *            - how the tour was printed
+	 */
+	static void commitOutput(EulerEvents.Output event, long edges,
+			TourWriter.Format format) {
+		if (event.shouldCommit()) {
+			event.edges = edges;
+			event.format = format.name();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Method to record the load of the graph, if the event is enabled
+	 *
+	 * @param event
+	 *            - event begun before the graph was read
+	 * @param nodes
+	 *            - vertices in the graph
+	 * @param edges
+	 *            - edges in the graph
+	 * @param representation
+	 *            - Graph, CsrGraph or the binary file
+	 */
+	static void commitLoad(EulerEvents.GraphLoad event, int nodes,
+			int edges, String representation) {
+		if (event.shouldCommit()) {
+			event.nodes = nodes;
+			event.edges = edges;
+			event.representation = representation;
+			event.commit();
 		}
+	}
 
+	/**
+	 * Method to print the parse rate of the input on stderr
+	 *
+	 * @param bytes
+	 *            - size of the input
+	 * @param nanos
+	 *            - time taken to parse the input
+	 */
+	static void printParseStats(long bytes, long nanos) {
+		double rate = nanos == 0 ? 0 : (bytes / (1024.0 * 1024.0))
+				/ (nanos / 1e9);
+		System.err.printf("Parsed %d bytes in %d ms (%.1f MB/s)%n", bytes,
+				nanos / 1000000, rate);
 	}
 
-	public static void main(String[] args) throws FileNotFoundException {
-		Scanner in = null;
+	/**
+	 * Method to print the timings of the phases as JSON on stderr
+	 *
+	 * @param stats
+	 *            - timings of the solve, null when not measured
+	 */
+	static void printMetrics(EulerStats stats) {
+		if (stats != null) {
+			System.err.println(stats.getJson());
+		}
+	}
+
+	/**
+	 * Method to print the cheapest closed walk covering every edge of g, with
+	 * its cost on stderr
+	 *
+	 * @param g
+	 *            - undirected input graph
+	 * @param greedy
+	 *            - pair the odd vertices greedily instead of exactly
+	 * @param format
+	 *            - how the edges are written
+	 * @param verify
+	 *            - check the walk over the augmented graph once printed
+	 * @param stats
+	 *            - record of the solve, null when not measured
+	 * @throws IOException
+	 */
+	static void printRoute(Graph g, boolean greedy, TourWriter.Format format,
+			boolean verify, EulerStats stats) throws IOException {
+		RouteInspection.Route route;
+		try {
+			route = RouteInspection.solve(g, greedy, stats);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+			return;
+		}
+		if (route == null) {
+			System.out.println("Graph is not connected");
+			return;
+		}
+		printTour(route.tour, format);
+		System.err.println("Route cost " + route.cost + ", "
+				+ route.addedEdges + " edges walked twice for "
+				+ route.addedCost);
+		if (verify) {
+			System.err.println(TourVerifier.verify(route.graph, route.tour,
+					null) ? "Tour is valid" : "Tour is not valid");
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		EdgeListReader in = null;
+		ChunkedEdgeListReader chunked = null; // set if read on many threads
+		EulerOptions o = EulerOptions.parse(args);
+
+		if (o.socket != null) {
+			EulerDaemon d = new EulerDaemon(o.format);
+			d.warmUp();
+			d.serve(Paths.get(o.socket), o.workers());
+			return;
+		}
+		if (o.daemon) {
+			EulerDaemon.serveStdin(o.format);
+			return;
+		}
+
+		if (o.batch) {
+			BatchSolver.run(o.inputFileNames, new EdgeListReader(Channels
+					.newChannel(System.in)), o.workers(), o.format,
+					new FileOutputStream(FileDescriptor.out));
+			return;
+		}
+
+		String conflict = o.conflict();
+		if (conflict != null) {
+			System.err.println(conflict);
+			System.exit(1);
+		}
+
+		// timings of the phases, also visible over JMX while the solve runs
+		EulerStats phases = null;
+		if (o.metrics) {
+			phases = new EulerStats();
+			phases.register();
+		}
+
+		EulerEvents.GraphLoad load = new EulerEvents.GraphLoad();
+		load.begin();
+		if (phases != null) {
+			// the parse starts here, the start of the MBean server and of the
+			// flight recorder events is not part of it
+			phases.restart();
+		}
+		if (o.binary) {
+			// the binary file is mapped, there is nothing to parse
+			CsrGraph cg = BinaryGraphFile.map(new File(o.inputFileName));
+			commitLoad(load, cg.numNodes, cg.numEdges, "BinaryGraphFile");
+			if (phases != null) {
+				phases.lap(EulerStats.Phase.PARSE);
+			}
+			if (!StreamEulerTour.streamTour(cg, o.format, o.parallel, phases)
+					&& hasTour(cg)) {
+				System.out.println(NOT_EULERIAN);
+			}
+			printMetrics(phases);
+			return;
+		}
 
-		if (args.length > 0) {
-			File inputFile = new File(args[0]);
-			in = new Scanner(inputFile);
+		if (o.inputFileName != null && o.threads > 1 && !o.precheck) {
+			// parallel chunked read, only possible for a file. -precheck reads
+			// in file order, so it can stop at the first edge that fails
+			File inputFile = new File(o.inputFileName);
+			chunked = ChunkedEdgeListReader.read(inputFile, o.threads);
+			if (o.stats) {
+				printParseStats(chunked.bytesRead(), chunked.elapsedNanos());
+			}
+		} else if (o.inputFileName != null) {
+			File inputFile = new File(o.inputFileName);
+			in = EdgeListReader.open(inputFile);
 		} else {
-			in = new Scanner(System.in);
+			in = new EdgeListReader(Channels.newChannel(System.in));
 		}
 
-		// long startTime = System.currentTimeMillis();
-		Graph g = Graph.readGraph(in, false);
-		// long endTime = System.currentTimeMillis();
-		// System.out.println("Time to read the graph: " + (endTime -
-		// startTime)+ " ms");
-		
+		if (o.precheck) {
+			// read the edges into flat arrays only, checking the degrees and
+			// the connectivity edge by edge; the graph is built from them once
+			// they are known to pass
+			chunked = ChunkedEdgeListReader.read(in, o.directed, true);
+			if (o.stats) {
+				printParseStats(chunked.bytesRead(), chunked.elapsedNanos());
+			}
+			if (phases != null) {
+				// the parse includes the precheck of every edge
+				phases.lap(EulerStats.Phase.PARSE);
+			}
+			EulerPrecheck check = chunked.precheck;
+			if (!check.isEulerian()) {
+				System.out.println(NOT_EULERIAN);
+				System.err.println(check.reason() + " after "
+						+ check.edgesAdded() + " of " + chunked.numEdges
+						+ " edges");
+				printMetrics(phases);
+				return;
+			}
+		}
+
+		if (o.compact) {
+			CsrGraph cg;
+			if (chunked != null) {
+				cg = o.offHeap ? CsrGraph.readGraphOffHeap(chunked) : CsrGraph
+						.readGraph(chunked);
+			} else {
+				cg = o.offHeap ? CsrGraph.readGraphOffHeap(in) : CsrGraph
+						.readGraph(in);
+				if (o.stats) {
+					printParseStats(in.bytesRead(), in.elapsedNanos());
+				}
+			}
+			commitLoad(load, cg.numNodes, cg.numEdges, "CsrGraph");
+			if (phases != null) {
+				phases.lap(EulerStats.Phase.PARSE);
+			}
+			if (!StreamEulerTour.streamTour(cg, o.format, o.parallel, phases)
+					&& hasTour(cg)) {
+				System.out.println(NOT_EULERIAN);
+			}
+			printMetrics(phases);
+			return;
+		}
 
-		// startTime = System.currentTimeMillis();
-		DoublyLinkedList<Edge> eulerTour = findEulerTour(g);
-		// endTime = System.currentTimeMillis();
-		if (eulerTour != null) {
-			//print the Euler Tour
-			eulerTour.printList();
+		Graph g;
+		if (chunked != null) {
+			g = Graph.readGraph(chunked, o.directed);
+		} else {
+			g = Graph.readGraph(in, o.directed);
+			if (o.stats) {
+				printParseStats(in.bytesRead(), in.elapsedNanos());
+			}
+		}
+		commitLoad(load, g.numNodes, g.numEdges, "Graph");
+		if (phases != null) {
+			phases.lap(EulerStats.Phase.PARSE);
+		}
+
+		if (o.components) {
+			// the components are solved on -threads workers, or on all cores
+			List<ComponentTours.Component> solved = ComponentTours
+					.solve(g, o.workers());
+			if (phases != null) {
+				phases.graph(g);
+				for (ComponentTours.Component c : solved) {
+					phases.subCircuits += c.subCircuits;
+				}
+				phases.lap(EulerStats.Phase.TOUR);
+			}
+			ComponentTours.write(g, solved, TourWriter.toStdout(o.format));
+			if (phases != null) {
+				phases.lap(EulerStats.Phase.OUTPUT);
+			}
+			printMetrics(phases);
+			return;
+		}
+
+		if (o.route) {
+			printRoute(g, o.greedy, o.format, o.verify, phases);
+			printMetrics(phases);
+			return;
+		}
+
+		if (o.tourFile != null) {
+			System.out.println(TourVerifier.verify(g, new File(o.tourFile),
+					o.format) ? "Tour is valid" : "Tour is not valid");
+			printMetrics(phases);
+			return;
 		}
-		
-		// System.out.println("Total Time :" + (endTime - startTime) + " ms");
-
-		/*
-		 * if (eulerTour != null) { System.out.println("Size of the Tour:" +
-		 * eulerTour.size); //eulerTour.printList();
-		 * //System.out.println("Total Time :" + (endTime - startTime) + " ms");
-		 * 
-		 * startTime = System.currentTimeMillis();
-		 * System.out.println("isEulerTour:"+ verifyTour(g, eulerTour,
-		 * g.verts.get(1))); endTime = System.currentTimeMillis();
-		 * System.out.println("Total Time to Verify Euler Tour :"+ (endTime -
-		 * startTime) + " ms"); }
-		 */
 
+		EulerContext ctx = EulerContext.acquire();
+		ctx.stats = phases;
+		BooleanSupplier check = null; // -verify of the tour, once printed
+		boolean found;
+		try {
+			if (o.stream) {
+				TourWriter out = TourWriter.toStdout(o.format);
+				// keep the ids only if the tour has to be checked
+				int[] ids = o.verify ? new int[g.numEdges] : null;
+				int[] size = new int[1];
+				Consumer<Edge> sink = out.edgeSink();
+				if (o.verify) {
+					sink = sink.andThen(e -> ids[size[0]++] = e.id);
+				}
+				found = StreamEulerTour.findEulerTour(g, null, sink, ctx);
+				if (found) {
+					EulerEvents.Output event = new EulerEvents.Output();
+					event.begin();
+					out.finish();
+					commitOutput(event, g.numEdges, o.format);
+					if (o.verify) {
+						check = () -> TourVerifier.verify(g, ids, size[0], null);
+					}
+				}
+			} else if (o.indexed) {
+				IndexLinkedList tour = IndexedEulerTour.findEulerTour(g, null,
+						ctx);
+				found = tour != null;
+				if (found) {
+					printTour(g, tour, o.format);
+					if (o.verify) {
+						check = () -> TourVerifier.verify(g, tour, null);
+					}
+				}
+			} else {
+				DoublyLinkedList<Edge> eulerTour = findEulerTour(g, null, ctx);
+				found = eulerTour != null;
+				if (found) {
+					// print the Euler Tour
+					printTour(eulerTour, o.format);
+					if (o.verify) {
+						check = () -> TourVerifier.verify(g, eulerTour, null);
+					}
+				}
+			}
+		} finally {
+			ctx.release();
+		}
+		if (!found && hasTour(g)) {
+			System.out.println(NOT_EULERIAN);
+		}
+		if (phases != null) {
+			phases.lap(EulerStats.Phase.OUTPUT);
+		}
+		if (check != null) {
+			System.err.println(check.getAsBoolean() ? "Tour is valid"
+					: "Tour is not valid");
+		}
+		printMetrics(phases);
 	}
 	
 	/*
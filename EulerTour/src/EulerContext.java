@@ -0,0 +1,158 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * EulerContext - Scratch state of one tour search over a Graph: the cursor
+ * into the adjacency list of every vertex, the used bit of every edge, the
+ * seen bit and the queue of the connectivity search, the stacks of the
+ * stack based walk and the fake edge that closes an Euler path. Keeping it
+ * out of Graph, Vertex and Edge leaves the graph untouched by a search, so
+ * one graph can be loaded once and solved again and again, from different
+ * start vertices and from several threads, each with its own context. A
+ * context grows to the largest graph it has seen and is reused as is, take
+ * one from acquire() and hand it back with release() to avoid allocating
+ * the arrays for every search. The pool keeps at most MAX_POOLED contexts,
+ * and a context whose arrays are more than SHRINK_FACTOR times what its
+ * last graph needed gives them up when it is released, so one huge graph
+ * does not pin its scratch space for the life of the process.
+ * @author rameshsuthan
+ *
+ */
+public class EulerContext {
+	// contexts handed back by release(), shared by all threads
+	private static final ConcurrentLinkedQueue<EulerContext> pool = new ConcurrentLinkedQueue<>();
+	// number of contexts in the pool, the queue does not count in O(1)
+	private static final AtomicInteger pooled = new AtomicInteger();
+	// contexts kept by the pool, one per thread that solves at a time
+	static final int MAX_POOLED = 2 * Runtime.getRuntime()
+			.availableProcessors();
+	// arrays larger than this many times the last graph are dropped
+	static final int SHRINK_FACTOR = 4;
+	// arrays of up to this many elements are always kept
+	static final int KEEP_SIZE = 1 << 16;
+
+	int[] cursor = new int[0]; // next position in Adj (or revAdj) of vertex v
+	long[] used = new long[0]; // bit e set once edge e is in the tour
+	long[] seen = new long[0]; // bit v set once the search has reached v
+	Vertex[] queue = new Vertex[0]; // queue of the connectivity search
+	Vertex[] vertexStack = new Vertex[0]; // vertices of the walk
+	Edge[] edgeStack = new Edge[0]; // edges of the walk
+	Edge fakeEdge; // edge closing an Euler path, not part of the graph
+	EulerStats stats; // timings of the search, null when not measured
+	private int lastNodes; // numNodes+1 of the graph of the last reset
+	private int lastEdges; // numEdges+1 of the graph of the last reset
+
+	/**
+	 * Method to get a context from the pool, or a new one if it is empty
+	 *
+	 * @return EulerContext
+	 */
+	public static EulerContext acquire() {
+		EulerContext ctx = pool.poll();
+		if (ctx == null) {
+			return new EulerContext();
+		}
+		pooled.decrementAndGet();
+		return ctx;
+	}
+
+	/**
+	 * Method to give the context back to the pool. It must not be used by
+	 * the caller afterwards. A full pool drops the context.
+	 */
+	public void release() {
+		fakeEdge = null;
+		stats = null;
+		if (pooled.incrementAndGet() > MAX_POOLED) {
+			pooled.decrementAndGet();
+			return;
+		}
+		if (isOversized(cursor.length, lastNodes)) {
+			cursor = new int[0];
+			seen = new long[0];
+			queue = new Vertex[0];
+		} else {
+			Arrays.fill(queue, null);
+		}
+		if (isOversized(edgeStack.length, lastEdges)) {
+			used = new long[0];
+			vertexStack = new Vertex[0];
+			edgeStack = new Edge[0];
+		} else {
+			// drop the references into the graph so it can be collected
+			Arrays.fill(vertexStack, null);
+			Arrays.fill(edgeStack, null);
+		}
+		pool.offer(this);
+	}
+
+	/**
+	 * Method to check whether an array of the given length is far larger
+	 * than the last graph needed
+	 */
+	private static boolean isOversized(int length, int needed) {
+		return length > KEEP_SIZE && length / SHRINK_FACTOR > needed;
+	}
+
+	/**
+	 * Method to prepare the context for a search of the given graph: the
+	 * arrays are grown if needed and the cursors and bits are cleared. Room
+	 * is left for the fake edge.
+	 *
+	 * @param g
+	 *            : Graph - graph to search
+	 */
+	void reset(Graph g) {
+		int n = g.numNodes + 1;
+		int m = g.numEdges + 1;
+		lastNodes = n;
+		lastEdges = m;
+		if (cursor.length < n) {
+			cursor = new int[n];
+			seen = new long[(n >>> 6) + 1];
+			queue = new Vertex[n];
+		} else {
+			Arrays.fill(cursor, 0, n, 0);
+			Arrays.fill(seen, 0, (n >>> 6) + 1, 0L);
+		}
+		if (used.length < (m >>> 6) + 1) {
+			used = new long[(m >>> 6) + 1];
+		} else {
+			Arrays.fill(used, 0, (m >>> 6) + 1, 0L);
+		}
+		if (edgeStack.length < m + 1) {
+			vertexStack = new Vertex[m + 1];
+			edgeStack = new Edge[m + 1];
+		}
+		fakeEdge = null;
+	}
+
+	/**
+	 * Method to mark the vertex as reached
+	 *
+	 * @return true if it had not been reached before
+	 */
+	boolean visit(Vertex v) {
+		long bit = 1L << v.name;
+		if ((seen[v.name >>> 6] & bit) != 0) {
+			return false;
+		}
+		seen[v.name >>> 6] |= bit;
+		return true;
+	}
+
+	/**
+	 * Method to check whether the edge is in the tour
+	 */
+	boolean isUsed(Edge e) {
+		return (used[e.id >>> 6] & (1L << e.id)) != 0;
+	}
+
+	/**
+	 * Method to mark the edge as part of the tour
+	 */
+	void use(Edge e) {
+		used[e.id >>> 6] |= 1L << e.id;
+	}
+}
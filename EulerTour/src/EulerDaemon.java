@@ -0,0 +1,210 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * EulerDaemon - Stays resident and solves jobs sent over the standard input
+ * or a Unix domain socket, so a job pays neither the JVM startup nor a cold
+ * JIT. The JIT is warmed up on a generated graph before the first job. The
+ * protocol is one line per job:
+ *
+ * <pre>
+ * file PATH                   solve the graph in the file
+ * graph n m u v w u v w ...   solve the graph given inline on the line
+ * quit                        close the connection (stdin: stop)
+ * shutdown                    stop the daemon
+ * </pre>
+ *
+ * and the answer to a job is a status line, "OK m", "NOT_EULERIAN" or
+ * "ERROR message", then for OK the tour in the chosen format, and a line
+ * holding a single "." at the end.
+ * @author rameshsuthan
+ *
+ */
+public class EulerDaemon {
+	// size of the graph and number of rounds used to warm up the JIT
+	private static final int WARM_UP_NODES = 1 << 14;
+	private static final int WARM_UP_ROUNDS = 20;
+
+	private final TourWriter.Format format;
+	private volatile boolean shutdown; // set by the shutdown job
+
+	/**
+	 * Constructor for EulerDaemon
+	 *
+	 * @param format
+	 *            : TourWriter.Format - how the tours are written
+	 */
+	public EulerDaemon(TourWriter.Format format) {
+		this.format = format;
+	}
+
+	/**
+	 * Method to run the solver on a generated graph until the hot methods
+	 * are compiled: a circulant graph where vertex i is joined to i+1 and
+	 * i+2, so every vertex has degree 4
+	 */
+	public void warmUp() throws IOException {
+		int n = WARM_UP_NODES;
+		CsrGraph.Builder builder = new CsrGraph.Builder(n, 2 * n);
+		for (int i = 1; i <= n; i++) {
+			builder.addEdge(i, i % n + 1, 1);
+			builder.addEdge(i, (i + 1) % n + 1, 1);
+		}
+		CsrGraph g = builder.build();
+		TourWriter sink = new TourWriter(
+				Channels.newChannel(OutputStream.nullOutputStream()), format);
+		for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+			solve(g, sink);
+		}
+	}
+
+	/**
+	 * Method to answer the jobs read from in until quit, shutdown or the
+	 * end of the input
+	 *
+	 * @param in
+	 *            : BufferedReader - jobs, one per line
+	 * @param out
+	 *            : TourWriter - where the answers are written
+	 * @throws IOException
+	 */
+	public void serve(BufferedReader in, TourWriter out) throws IOException {
+		String line;
+		while (!shutdown && (line = in.readLine()) != null) {
+			line = line.trim();
+			if (line.isEmpty()) {
+				continue;
+			}
+			if (line.equals("quit")) {
+				break;
+			}
+			if (line.equals("shutdown")) {
+				shutdown = true;
+				break;
+			}
+			job(line, out);
+			out.writeLine(".");
+			out.flush();
+		}
+	}
+
+	/**
+	 * Method to accept connections on a Unix domain socket and answer the
+	 * jobs of every connection on a pool of threads, until a shutdown job
+	 *
+	 * @param socket
+	 *            : Path - socket file, replaced if it exists
+	 * @param threads
+	 *            : int - number of connections served at a time
+	 * @throws IOException
+	 */
+	public void serve(Path socket, int threads) throws IOException {
+		Files.deleteIfExists(socket);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try (ServerSocketChannel server = ServerSocketChannel
+				.open(StandardProtocolFamily.UNIX)) {
+			server.bind(UnixDomainSocketAddress.of(socket));
+			while (!shutdown) {
+				SocketChannel client = server.accept();
+				pool.submit(() -> {
+					try (SocketChannel c = client) {
+						serve(new BufferedReader(Channels.newReader(c,
+								StandardCharsets.UTF_8)), new TourWriter(c,
+								format));
+					} catch (IOException e) {
+						System.err.println("Connection failed: " + e);
+					}
+					if (shutdown) {
+						// wake up accept() so the loop sees the flag
+						try {
+							SocketChannel.open(
+									UnixDomainSocketAddress.of(socket)).close();
+						} catch (IOException e) {
+							// the server is already closed
+						}
+					}
+					return null;
+				});
+			}
+		} finally {
+			pool.shutdown();
+			Files.deleteIfExists(socket);
+		}
+	}
+
+	/**
+	 * Method to run one job and write its answer, without the final "."
+	 */
+	private void job(String line, TourWriter out) throws IOException {
+		CsrGraph g;
+		EulerEvents.GraphLoad load = new EulerEvents.GraphLoad();
+		load.begin();
+		try {
+			if (line.startsWith("file ")) {
+				g = CsrGraph.readGraph(EdgeListReader.open(new File(line
+						.substring(5).trim())));
+			} else if (line.startsWith("graph ")) {
+				byte[] edges = line.substring(6).getBytes(
+						StandardCharsets.US_ASCII);
+				g = CsrGraph.readGraph(new EdgeListReader(Channels
+						.newChannel(new ByteArrayInputStream(edges))));
+			} else {
+				out.writeLine("ERROR unknown job: " + line);
+				return;
+			}
+		} catch (IOException | RuntimeException e) {
+			out.writeLine("ERROR " + e);
+			return;
+		}
+		Euler.commitLoad(load, g.numNodes, g.numEdges, "CsrGraph");
+		solve(g, out);
+	}
+
+	/**
+	 * Method to write the status line and the tour of the graph
+	 */
+	private void solve(CsrGraph g, TourWriter out) throws IOException {
+		int sVertex = CsrEulerTour.walkStart(g);
+		if (sVertex == -1) {
+			out.writeLine("NOT_EULERIAN");
+			return;
+		}
+		out.writeLine("OK " + (sVertex == 0 ? 0 : g.numEdges));
+		if (sVertex > 0) {
+			CsrEulerTour.hierholzerAlgorithm(g, sVertex, out.edgeSink(g));
+			EulerEvents.Output event = new EulerEvents.Output();
+			event.begin();
+			out.finish();
+			Euler.commitOutput(event, g.numEdges, format);
+		}
+	}
+
+	/**
+	 * Method to serve the jobs of the standard input on the standard output
+	 *
+	 * @param format
+	 *            : TourWriter.Format - how the tours are written
+	 * @throws IOException
+	 */
+	public static void serveStdin(TourWriter.Format format)
+			throws IOException {
+		EulerDaemon daemon = new EulerDaemon(format);
+		daemon.warmUp();
+		daemon.serve(new BufferedReader(new InputStreamReader(System.in,
+				StandardCharsets.UTF_8)), TourWriter.toStdout(format));
+	}
+}
@@ -0,0 +1,161 @@
+import java.util.function.IntSupplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * EulerEvents - JDK Flight Recorder events of the solver, so a recording of
+ * a slow job shows what Euler was doing: loading the graph, the
+ * connectivity and parity checks, every sub circuit spliced into the tour,
+ * the fold of a Euler path and the output. Vertices with many unused edges
+ * when the walk first leaves them are reported as hubs. Every engine emits
+ * them: the list, indexed and stack based walks over Graph and CsrGraph,
+ * and ParallelEulerTour, whose sub circuits are the trails it joins. The
+ * events are
+ * under "Euler Tour" in JDK Mission Control; when they are not enabled in
+ * the recording they cost an isEnabled check.
+ *
+ * The hub threshold is the system property euler.jfr.hubDegree, 1000 by
+ * default.
+ * @author rameshsuthan
+ *
+ */
+public class EulerEvents {
+	// unused edges a vertex must have to be reported as a hub
+	static final int HUB_DEGREE = Integer.getInteger("euler.jfr.hubDegree",
+			1000);
+
+	@Name("euler.GraphLoad")
+	@Label("Graph Load")
+	@Category("Euler Tour")
+	static class GraphLoad extends Event {
+		@Label("Vertices")
+		int nodes;
+		@Label("Edges")
+		int edges;
+		@Label("Representation")
+		String representation;
+	}
+
+	@Name("euler.Connectivity")
+	@Label("Connectivity Check")
+	@Category("Euler Tour")
+	static class Connectivity extends Event {
+		@Label("Vertices")
+		int nodes;
+		@Label("Connected")
+		boolean connected;
+	}
+
+	@Name("euler.ParityCheck")
+	@Label("Parity Check")
+	@Category("Euler Tour")
+	static class ParityCheck extends Event {
+		@Label("Vertices")
+		int nodes;
+		@Label("Euler Type")
+		@Description("0 for a Euler Tour, 1 for a Euler Path, -1 if not Eulerian")
+		int eulerType;
+	}
+
+	@Name("euler.Splice")
+	@Label("Sub Circuit Splice")
+	@Category("Euler Tour")
+	@Description("A sub circuit of the walk joined into the full tour")
+	@StackTrace(false)
+	static class Splice extends Event {
+		@Label("Length")
+		int length;
+		@Label("Join Vertex")
+		int joinVertex;
+	}
+
+	@Name("euler.HubVertex")
+	@Label("Hub Vertex")
+	@Category("Euler Tour")
+	@Description("A vertex with more unused edges than euler.jfr.hubDegree when the walk first leaves it")
+	@StackTrace(false)
+	static class HubVertex extends Event {
+		@Label("Vertex")
+		int vertex;
+		@Label("Degree")
+		int degree;
+		@Label("Unused Edges")
+		int unusedEdges;
+	}
+
+	@Name("euler.PathFold")
+	@Label("Euler Path Fold")
+	@Category("Euler Tour")
+	static class PathFold extends Event {
+		@Label("Edges")
+		int edges;
+	}
+
+	@Name("euler.Output")
+	@Label("Tour Output")
+	@Category("Euler Tour")
+	static class Output extends Event {
+		@Label("Edges")
+		long edges;
+		@Label("Format")
+		String format;
+	}
+
+	/**
+	 * Method to record a sub circuit joined into the tour
+	 *
+	 * @param length
+	 *            : int - edges in the sub circuit
+	 * @param joinVertex
+	 *            : int - vertex the sub circuit starts and ends at
+	 */
+	static void splice(int length, int joinVertex) {
+		Splice event = new Splice();
+		if (event.isEnabled()) {
+			event.length = length;
+			event.joinVertex = joinVertex;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Method to record the vertex as a hub if it has more than HUB_DEGREE
+	 * unused edges. The edges are only counted when the event is enabled,
+	 * callers check a cheap upper bound first.
+	 *
+	 * @param vertex
+	 *            : int - name of the vertex
+	 * @param degree
+	 *            : int - edges of the vertex
+	 * @param unusedEdges
+	 *            : IntSupplier - counts the edges of the vertex not yet in
+	 *            the tour
+	 */
+	static void hub(int vertex, int degree, IntSupplier unusedEdges) {
+		HubVertex event = new HubVertex();
+		if (event.isEnabled()) {
+			int unused = unusedEdges.getAsInt();
+			if (unused > HUB_DEGREE) {
+				event.vertex = vertex;
+				event.degree = degree;
+				event.unusedEdges = unused;
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Method to check whether hub vertices are recorded, so a walk only
+	 * tracks the vertices it has left when they are
+	 *
+	 * @return true if the HubVertex event is enabled
+	 */
+	static boolean isHubEnabled() {
+		return new HubVertex().isEnabled();
+	}
+}
@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EulerOptions - Command line flags of Euler.main
+ * @author rameshsuthan
+ *
+ */
+public class EulerOptions {
+	String inputFileName = null; // last input file, null for the stdin
+	List<String> inputFileNames = new ArrayList<>(); // all of them, -batch
+	boolean compact = false; // use the CsrGraph representation
+	boolean binary = false; // input is a BinaryGraphFile
+	boolean stats = false; // report the parse rate on stderr
+	boolean metrics = false; // report the phases as JSON on stderr
+	boolean verify = false; // check the tour once it is printed
+	boolean components = false; // a tour per connected component
+	boolean route = false; // cheapest closed walk over every edge
+	boolean greedy = false; // pair the odd vertices of -route greedily
+	String tourFile = null; // check this tour instead of solving
+	int threads = 0; // threads parsing the input file, 0 if not given
+	boolean stream = false; // emit the tour without building the list
+	boolean indexed = false; // keep the tour in an IndexLinkedList
+	boolean directed = false; // read the edges as arcs
+	boolean precheck = false; // reject non Eulerian input before building
+	boolean parallel = false; // build the CsrGraph tour on all cores
+	boolean offHeap = false; // keep the CsrGraph outside the heap
+	boolean batch = false; // solve every input file, or every graph of
+							// the standard input, on a thread pool
+	boolean daemon = false; // answer jobs from the standard input
+	String socket = null; // answer jobs from this Unix domain socket
+	TourWriter.Format format = TourWriter.Format.PAIR;
+
+	/**
+	 * Method to read the flags and the input files from the command line.
+	 * Anything that is not a flag is an input file.
+	 *
+	 * @param args
+	 *            - command line of Euler.main
+	 * @return EulerOptions
+	 */
+	public static EulerOptions parse(String[] args) {
+		EulerOptions o = new EulerOptions();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-csr")) {
+				o.compact = true;
+			} else if (args[i].equals("-bin")) {
+				o.binary = true;
+			} else if (args[i].equals("-stats")) {
+				o.stats = true;
+			} else if (args[i].equals("-metrics")) {
+				o.metrics = true;
+			} else if (args[i].equals("-verify")) {
+				o.verify = true;
+			} else if (args[i].equals("-components")) {
+				o.components = true;
+			} else if (args[i].equals("-route")) {
+				o.route = true;
+			} else if (args[i].equals("-greedy")) {
+				o.greedy = true;
+			} else if (args[i].equals("-verify-tour")) {
+				o.tourFile = args[++i];
+			} else if (args[i].equals("-parallel")) {
+				// only the CsrGraph engine has a parallel builder
+				o.parallel = true;
+				o.compact = true;
+			} else if (args[i].equals("-daemon")) {
+				o.daemon = true;
+			} else if (args[i].equals("-socket")) {
+				o.socket = args[++i];
+			} else if (args[i].equals("-batch")) {
+				o.batch = true;
+			} else if (args[i].equals("-offheap")) {
+				o.offHeap = true;
+				o.compact = true;
+			} else if (args[i].equals("-precheck")) {
+				o.precheck = true;
+			} else if (args[i].equals("-directed")) {
+				o.directed = true;
+			} else if (args[i].equals("-indexed")) {
+				o.indexed = true;
+			} else if (args[i].equals("-stream")) {
+				o.stream = true;
+			} else if (args[i].equals("-format")) {
+				// pair, plain or vertices
+				o.format = TourWriter.Format.valueOf(args[++i].toUpperCase());
+			} else if (args[i].equals("-threads")) {
+				o.threads = Integer.parseInt(args[++i]);
+			} else {
+				o.inputFileName = args[i];
+				o.inputFileNames.add(args[i]);
+			}
+		}
+		return o;
+	}
+
+	/**
+	 * Method to check the flags of a single solve for combinations the
+	 * engines do not support
+	 *
+	 * @return message for stderr, null if the flags go together
+	 */
+	public String conflict() {
+		if (directed && (compact || binary)) {
+			// CsrGraph only holds undirected graphs
+			return "-directed is not supported with -csr or -bin";
+		}
+		if ((verify || tourFile != null) && (compact || binary)) {
+			// the streamed tours are checked from disk with -verify-tour
+			return "-verify and -verify-tour need the Graph representation";
+		}
+		if (components && (directed || compact || binary)) {
+			return "-components needs an undirected Graph representation";
+		}
+		if (route && (directed || compact || binary)) {
+			return "-route needs an undirected Graph representation";
+		}
+		return null;
+	}
+
+	/**
+	 * Method to get the number of worker threads: -threads if given, else
+	 * one per core
+	 *
+	 * @return number of threads
+	 */
+	public int workers() {
+		return threads > 0 ? threads : Runtime.getRuntime()
+				.availableProcessors();
+	}
+}
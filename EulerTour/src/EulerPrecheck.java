@@ -0,0 +1,274 @@
+import java.util.Arrays;
+
+/**
+ * EulerPrecheck - Checks whether a graph can have an Euler tour or Euler path
+ * while its edges are read, before any adjacency list is built. The degree
+ * parity of every vertex is kept in a bitset (the in/out balance in an int
+ * array for directed graphs) and the components in a union-find, so the
+ * check costs O(n) memory and near O(1) per edge. It applies the same rules
+ * as Euler.isConnected/isEuler and Euler.isConnectedDirected/isDirectedEuler.
+ *
+ * A reader does not have to finish the file to reject it: an edge fixes the
+ * parity of at most two vertices and joins at most two components, so once
+ * the edges still to come are too few to repair the graph, isRejected tells
+ * the reader to stop.
+ * @author rameshsuthan
+ *
+ */
+public class EulerPrecheck {
+	// number of offending vertices listed in the reason
+	private static final int MAX_LISTED = 10;
+
+	private final int numNodes;
+	private final boolean directed;
+	private int numEdges; // number of edges added so far
+
+	private final long[] odd; // undirected: bit v set if v has odd degree
+	private int numOdd; // undirected: vertices of odd degree
+	private final int[] balance; // directed: out degree - in degree of v
+	private final long[] touched; // directed: bit v set if v has an arc
+	private long imbalance; // directed: sum of |balance[v]|
+
+	private final int[] parent; // union-find over the vertices
+	private int components; // number of components of the union-find
+	private String rejection; // condition isRejected stopped on, if it did
+
+	/**
+	 * Constructor for EulerPrecheck
+	 *
+	 * @param numNodes
+	 *            : int - number of vertices
+	 * @param directed
+	 *            : boolean - true if the edges are arcs
+	 */
+	public EulerPrecheck(int numNodes, boolean directed) {
+		this.numNodes = numNodes;
+		this.directed = directed;
+		if (directed) {
+			odd = null;
+			balance = new int[numNodes + 1];
+			touched = new long[(numNodes >>> 6) + 1];
+		} else {
+			odd = new long[(numNodes >>> 6) + 1];
+			balance = null;
+			touched = null;
+		}
+		parent = new int[numNodes + 1];
+		for (int v = 0; v <= numNodes; v++) {
+			parent[v] = v;
+		}
+		components = numNodes;
+	}
+
+	/**
+	 * Method to add an edge (an arc from a to b if directed)
+	 *
+	 * @param a
+	 *            : int - one end of edge
+	 * @param b
+	 *            : int - other end of edge
+	 */
+	public void addEdge(int a, int b) {
+		if (a < 1 || a > numNodes || b < 1 || b > numNodes) {
+			throw new IllegalArgumentException("Invalid edge (" + a + "," + b
+					+ ") for a graph with " + numNodes + " vertices");
+		}
+		if (directed) {
+			imbalance -= Math.abs(balance[a]) + Math.abs(balance[b]);
+			balance[a]++;
+			balance[b]--;
+			imbalance += Math.abs(balance[a]) + Math.abs(balance[b]);
+			touched[a >>> 6] |= 1L << a;
+			touched[b >>> 6] |= 1L << b;
+		} else {
+			odd[a >>> 6] ^= 1L << a;
+			numOdd += (odd[a >>> 6] & (1L << a)) != 0 ? 1 : -1;
+			odd[b >>> 6] ^= 1L << b;
+			numOdd += (odd[b >>> 6] & (1L << b)) != 0 ? 1 : -1;
+		}
+		union(a, b);
+		numEdges++;
+	}
+
+	/**
+	 * Method to get the number of edges added so far
+	 *
+	 * @return number of edges
+	 */
+	public int edgesAdded() {
+		return numEdges;
+	}
+
+	/**
+	 * Method to check whether the graph already fails, whatever the edges
+	 * still to be added
+	 *
+	 * @param remaining
+	 *            : long - number of edges still to be added
+	 * @return true if the graph cannot pass the check any more
+	 */
+	public boolean isRejected(long remaining) {
+		if (numEdges == 0) {
+			return false;
+		}
+		if (directed) {
+			// an arc moves the balance of two vertices by one; a tour or path
+			// leaves at most two vertices off by one
+			if (imbalance - 2 * remaining > 2) {
+				rejection = "in and out degrees off by " + imbalance
+						+ " in total, " + remaining
+						+ " arcs to come cannot balance them";
+				return true;
+			}
+			return false;
+		}
+		if (numNodes <= 1) {
+			return false;
+		}
+		if (numOdd - 2 * remaining > 2) {
+			rejection = numOdd + " vertices of odd degree, " + remaining
+					+ " edges to come cannot pair them";
+			return true;
+		}
+		// isolated vertices count as components here, as in Euler.isConnected
+		if (components - remaining > 1) {
+			rejection = "graph is disconnected: " + components
+					+ " components, " + remaining
+					+ " edges to come cannot join them";
+			return true;
+		}
+		return false;
+	}
+
+	private int find(int x) {
+		while (parent[x] != x) {
+			parent[x] = parent[parent[x]];
+			x = parent[x];
+		}
+		return x;
+	}
+
+	private void union(int a, int b) {
+		a = find(a);
+		b = find(b);
+		if (a != b) {
+			// link the larger root below the smaller one
+			if (a < b) {
+				parent[b] = a;
+			} else {
+				parent[a] = b;
+			}
+			components--;
+		}
+	}
+
+	/**
+	 * Method to get the vertices breaking the degree condition: the odd
+	 * degree vertices, or the vertices whose in and out degree differ
+	 *
+	 * @return vertices in increasing order
+	 */
+	public int[] oddVertices() {
+		int[] result = new int[16];
+		int size = 0;
+		for (int v = 1; v <= numNodes; v++) {
+			boolean isOdd = directed ? balance[v] != 0
+					: (odd[v >>> 6] & (1L << v)) != 0;
+			if (isOdd) {
+				if (size == result.length) {
+					result = Arrays.copyOf(result, size << 1);
+				}
+				result[size++] = v;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * Method to get the reason the graph has no Euler tour or Euler path. If
+	 * isRejected stopped the read, that is the condition it stopped on, the
+	 * edges added so far do not tell it any more.
+	 *
+	 * @return reason, null if the graph passes the check
+	 */
+	public String reason() {
+		if (rejection != null) {
+			return rejection;
+		}
+		if (directed) {
+			return directedReason();
+		}
+		// same as Euler.findEulerTour: these graphs have no tour to find,
+		// and are not reported as non Eulerian either
+		if (numNodes <= 1 || numEdges == 0) {
+			return null;
+		}
+		int[] oddVertices = oddVertices();
+		if (oddVertices.length != 0 && oddVertices.length != 2) {
+			return oddVertices.length + " vertices of odd degree: "
+					+ list(oddVertices);
+		}
+		if (components != 1) {
+			return "graph is disconnected: " + components + " components";
+		}
+		return null;
+	}
+
+	private String directedReason() {
+		if (numNodes == 0 || numEdges == 0) {
+			return null;
+		}
+		int[] unbalanced = oddVertices();
+		int starts = 0, ends = 0;
+		boolean other = false;
+		for (int v : unbalanced) {
+			if (balance[v] == 1) {
+				starts++;
+			} else if (balance[v] == -1) {
+				ends++;
+			} else {
+				other = true;
+			}
+		}
+		if (other || starts > 1 || starts != ends) {
+			return unbalanced.length
+					+ " vertices with unbalanced in and out degree: "
+					+ list(unbalanced);
+		}
+		// isolated vertices do not count for directed graphs
+		int isolated = 0;
+		for (int v = 1; v <= numNodes; v++) {
+			if ((touched[v >>> 6] & (1L << v)) == 0) {
+				isolated++;
+			}
+		}
+		if (components - isolated != 1) {
+			return "graph is disconnected: " + (components - isolated)
+					+ " components with arcs";
+		}
+		return null;
+	}
+
+	private static String list(int[] vertices) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < vertices.length && i < MAX_LISTED; i++) {
+			if (i > 0) {
+				sb.append(' ');
+			}
+			sb.append(vertices[i]);
+		}
+		if (vertices.length > MAX_LISTED) {
+			sb.append(" ...");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Method to check whether the graph passes the check
+	 *
+	 * @return true if the graph can have an Euler tour or Euler path
+	 */
+	public boolean isEulerian() {
+		return reason() == null;
+	}
+}
@@ -0,0 +1,237 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * EulerStats - Timings and counters of one solve: the time and the bytes
+ * allocated in every phase, the size of the graph, the peak vertex degree
+ * and the number of sub circuits the engine walked (the trails it joined,
+ * for ParallelEulerTour), whatever engine solved the graph. A record is
+ * only made when asked for (-metrics, or EulerContext.stats set by the
+ * caller); without one the solver only pays a null check per phase.
+ *
+ * The phases are laps: lap(p) charges the time since the previous lap to
+ * p. The record is printed as one line of JSON and can be registered as an
+ * MBean to be watched while a long solve runs. The counters are written by
+ * the solving thread and read by JMX without locking.
+ * @author rameshsuthan
+ *
+ */
+public class EulerStats implements EulerStatsMBean {
+	/**
+	 * Phase - a step of the solve. In the streaming modes the tour is
+	 * written while it is built, OUTPUT then only holds the final flush.
+	 *
+	 */
+	public enum Phase {
+		PARSE, CONNECTIVITY, PARITY, TOUR, PATH, OUTPUT
+	}
+
+	private static final String OBJECT_NAME = "EulerTour:type=EulerStats";
+	// bytes allocated per thread, only in the JVMs that count them
+	private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+	private final long[] nanos = new long[Phase.values().length];
+	private final long[] bytes = new long[Phase.values().length];
+	private long lapNanos; // time of the previous lap
+	private long lapBytes; // bytes allocated at the previous lap
+	long numNodes;
+	long numEdges;
+	int peakDegree;
+	long subCircuits;
+
+	/**
+	 * Constructor for EulerStats, the first lap starts now
+	 */
+	public EulerStats() {
+		lapNanos = System.nanoTime();
+		lapBytes = allocatedBytes();
+	}
+
+	private static com.sun.management.ThreadMXBean threads() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory
+				.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+			if (threads.isThreadAllocatedMemorySupported()
+					&& threads.isThreadAllocatedMemoryEnabled()) {
+				return threads;
+			}
+		}
+		return null;
+	}
+
+	private static long allocatedBytes() {
+		return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread
+				.currentThread().getId());
+	}
+
+	/**
+	 * Method to charge the time and the allocations since the previous lap
+	 * to the given phase
+	 *
+	 * @param phase
+	 *            : Phase - phase that just ended
+	 */
+	public void lap(Phase phase) {
+		long now = System.nanoTime();
+		long allocated = allocatedBytes();
+		nanos[phase.ordinal()] += now - lapNanos;
+		bytes[phase.ordinal()] += allocated - lapBytes;
+		lapNanos = now;
+		lapBytes = allocated;
+	}
+
+	/**
+	 * Method to skip the time since the previous lap, so that work outside
+	 * the solver is not charged to the next phase
+	 */
+	public void restart() {
+		lapNanos = System.nanoTime();
+		lapBytes = allocatedBytes();
+	}
+
+	/**
+	 * Method to record the size and the peak degree of the graph
+	 *
+	 * @param g
+	 *            : Graph - solved graph
+	 */
+	public void graph(Graph g) {
+		numNodes = g.numNodes;
+		numEdges = g.numEdges;
+		int peak = 0;
+		for (Vertex v : g.verts) {
+			if (v != null) {
+				peak = Math.max(peak, v.Adj.size() + v.revAdj.size());
+			}
+		}
+		peakDegree = peak;
+	}
+
+	/**
+	 * Method to record the size and the peak degree of the compact graph
+	 *
+	 * @param g
+	 *            : CsrGraph - solved graph
+	 */
+	public void graph(CsrGraph g) {
+		numNodes = g.numNodes;
+		numEdges = g.numEdges;
+		int peak = 0;
+		for (int v = 1; v <= g.numNodes; v++) {
+			peak = Math.max(peak, g.degree(v));
+		}
+		peakDegree = peak;
+	}
+
+	@Override
+	public long getNumNodes() {
+		return numNodes;
+	}
+
+	@Override
+	public long getNumEdges() {
+		return numEdges;
+	}
+
+	@Override
+	public int getPeakDegree() {
+		return peakDegree;
+	}
+
+	@Override
+	public long getSubCircuits() {
+		return subCircuits;
+	}
+
+	@Override
+	public String[] getPhaseNames() {
+		Phase[] phases = Phase.values();
+		String[] names = new String[phases.length];
+		for (int i = 0; i < phases.length; i++) {
+			names[i] = phases[i].name().toLowerCase(Locale.ROOT);
+		}
+		return names;
+	}
+
+	@Override
+	public long[] getPhaseNanos() {
+		return nanos.clone();
+	}
+
+	@Override
+	public long[] getPhaseAllocatedBytes() {
+		if (THREADS == null) {
+			long[] unknown = new long[bytes.length];
+			Arrays.fill(unknown, -1);
+			return unknown;
+		}
+		return bytes.clone();
+	}
+
+	/**
+	 * @return edges per second of the tour phase
+	 */
+	@Override
+	public double getEdgesPerSecond() {
+		long tour = nanos[Phase.TOUR.ordinal()];
+		return tour == 0 ? 0 : numEdges / (tour / 1e9);
+	}
+
+	/**
+	 * Method to get the record as one line of JSON
+	 *
+	 * @return String - JSON object
+	 */
+	@Override
+	public String getJson() {
+		long total = 0;
+		for (long t : nanos) {
+			total += t;
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"nodes\":").append(numNodes);
+		sb.append(",\"edges\":").append(numEdges);
+		sb.append(",\"peakDegree\":").append(peakDegree);
+		sb.append(",\"subCircuits\":").append(subCircuits);
+		sb.append(",\"edgesPerSecond\":").append(
+				String.format(Locale.ROOT, "%.0f", getEdgesPerSecond()));
+		sb.append(",\"totalMs\":").append(
+				String.format(Locale.ROOT, "%.3f", total / 1e6));
+		sb.append(",\"phases\":{");
+		String[] names = getPhaseNames();
+		long[] allocated = getPhaseAllocatedBytes();
+		for (int i = 0; i < names.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append('"').append(names[i]).append("\":{\"ms\":");
+			sb.append(String.format(Locale.ROOT, "%.3f", nanos[i] / 1e6));
+			sb.append(",\"allocatedBytes\":").append(allocated[i]).append('}');
+		}
+		return sb.append("}}").toString();
+	}
+
+	/**
+	 * Method to make the record visible over JMX as
+	 * EulerTour:type=EulerStats, in place of any record registered before. A
+	 * failure is reported on stderr, the solve goes on without JMX.
+	 */
+	public void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+		} catch (JMException e) {
+			System.err.println("Could not register " + OBJECT_NAME + ": " + e);
+		}
+	}
+}
@@ -0,0 +1,31 @@
+/**
+ * EulerStatsMBean - JMX view of an EulerStats record
+ * @author rameshsuthan
+ *
+ */
+public interface EulerStatsMBean {
+	long getNumNodes();
+
+	long getNumEdges();
+
+	int getPeakDegree();
+
+	long getSubCircuits();
+
+	/**
+	 * @return names of the phases, in the order of getPhaseNanos
+	 */
+	String[] getPhaseNames();
+
+	long[] getPhaseNanos();
+
+	/**
+	 * @return bytes allocated by the solving thread in every phase, -1 if
+	 *         the JVM does not count them
+	 */
+	long[] getPhaseAllocatedBytes();
+
+	double getEdgesPerSecond();
+
+	String getJson();
+}
@@ -13,6 +13,8 @@ class Graph implements Iterable<Vertex> {
 	public List<Vertex> verts; // array of vertices
 	public int numNodes; // number of verices in the graph
 	public int numEdges; // number of Edges in the graph
+	public List<Edge> edges; // edges of the graph, indexed by Edge.id
+	public boolean directed; // true once an arc has been added
 
 	/**
 	 * Constructor for Graph
@@ -24,6 +26,7 @@ class Graph implements Iterable<Vertex> {
 		numNodes = size;
 		verts = new ArrayList<>(size + 1);
 		verts.add(0, null);
+		edges = new ArrayList<>();
 		// create an array of Vertex objects
 		for (int i = 1; i <= size; i++)
 			verts.add(i, new Vertex(i));
@@ -43,12 +46,10 @@ class Graph implements Iterable<Vertex> {
 		Vertex u = verts.get(a);
 		Vertex v = verts.get(b);
 		Edge e = new Edge(u, v, weight);
+		e.id = numEdges;
+		edges.add(e);
 		u.Adj.add(e);
 		v.Adj.add(e);
-		
-		//only for undirected Graph
-		u.unUsedEdges.add(e);
-		v.unUsedEdges.add(e);
 		numEdges++;
 		return e;
 	}
@@ -67,6 +68,9 @@ class Graph implements Iterable<Vertex> {
 		Vertex head = verts.get(a);
 		Vertex tail = verts.get(b);
 		Edge e = new Edge(head, tail, weight);
+		directed = true;
+		e.id = numEdges;
+		edges.add(e);
 		head.Adj.add(e);
 		tail.revAdj.add(e);
 		numEdges++;
@@ -129,9 +133,6 @@ class Graph implements Iterable<Vertex> {
 		// read the graph related parameters
 		int n = in.nextInt(); // number of vertices in the graph
 		int m = in.nextInt(); // number of edges in the graph
-		
-//		System.out.println("Number of Vertex and edges in the graph: [" + n
-//				+ "," + m + "]");
 
 		// create a graph instance
 		Graph g = new Graph(n);
@@ -148,4 +149,59 @@ class Graph implements Iterable<Vertex> {
 		in.close();
 		return g;
 	}
+
+	/**
+	 * Method to read the graph through an EdgeListReader, the same format as
+	 * readGraph(Scanner, boolean) without the Scanner overhead
+	 * 
+	 * @param in
+	 *            : EdgeListReader - input
+	 * @param directed
+	 *            : boolean - true to add the edges as arcs
+	 * @return Graph
+	 * @throws IOException
+	 */
+	public static Graph readGraph(EdgeListReader in, boolean directed)
+			throws IOException {
+		int n = in.nextInt(); // number of vertices in the graph
+		int m = in.nextInt(); // number of edges in the graph
+
+		Graph g = new Graph(n);
+		for (int i = 0; i < m; i++) {
+			int u = in.nextInt();
+			int v = in.nextInt();
+			int w = in.nextInt();
+			if (directed) {
+				g.addDirectedEdge(u, v, w);
+			} else {
+				g.addEdge(u, v, w);
+			}
+		}
+		in.close();
+		return g;
+	}
+
+	/**
+	 * Method to build the graph from a file parsed on several threads by
+	 * ChunkedEdgeListReader. The edges are added in file order.
+	 * 
+	 * @param in
+	 *            : ChunkedEdgeListReader - parsed input
+	 * @param directed
+	 *            : boolean - true to add the edges as arcs
+	 * @return Graph
+	 */
+	public static Graph readGraph(ChunkedEdgeListReader in, boolean directed) {
+		Graph g = new Graph(in.numNodes);
+		for (ChunkedEdgeListReader.Chunk c : in.chunks) {
+			for (int i = 0; i < c.size; i++) {
+				if (directed) {
+					g.addDirectedEdge(c.from[i], c.to[i], c.weight[i]);
+				} else {
+					g.addEdge(c.from[i], c.to[i], c.weight[i]);
+				}
+			}
+		}
+		return g;
+	}
 }
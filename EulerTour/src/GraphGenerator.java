@@ -0,0 +1,291 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * GraphGenerator - Writes reproducible Eulerian graphs of any size for load
+ * testing, in the "n m" / "u v w" text format read by Graph.readGraph or in
+ * the binary format of BinaryGraphFile. The edges are streamed to the file
+ * as they are generated, only the header is known in advance, so the memory
+ * used does not depend on the size of the graph. The same seed gives the
+ * same file. The families are:
+ *
+ * <pre>
+ * cycles    a cycle through all the vertices in a random order, then random
+ *           cycles until there are m edges
+ * powerlaw  the same, but the extra cycles pick their vertices with a power
+ *           law, so a few low numbered hubs get most of the edges
+ * grid      a torus, every vertex has degree 4
+ * debruijn  the binary de Bruijn graph, vertex x joined to 2x and 2x+1
+ *           (mod n), every vertex has degree 4 and some have self loops
+ * </pre>
+ *
+ * Every family is connected with even degrees. With -path one more edge
+ * joins vertex 1 and vertex n, leaving exactly those two of odd degree, so
+ * the tour is a Euler path.
+ *
+ * Usage: java GraphGenerator -family F -edges M [-nodes N] [-seed S]
+ * [-path] [-binary] output
+ * @author rameshsuthan
+ *
+ */
+public class GraphGenerator {
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final int MAX_WEIGHT = 100;
+	private static final int MAX_CYCLE = 64; // longest extra cycle
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final byte[] digits = new byte[11];
+	private final SplittableRandom rnd;
+	private long written; // edges written so far
+
+	private GraphGenerator(FileChannel channel, long seed) {
+		this.channel = channel;
+		this.rnd = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Method to generate a graph into a text file
+	 *
+	 * @param family
+	 *            : String - cycles, powerlaw, grid or debruijn
+	 * @param edges
+	 *            : long - number of edges wanted, grid and debruijn round it
+	 *            down to their nearest size
+	 * @param nodes
+	 *            : int - number of vertices of cycles and powerlaw, 0 for
+	 *            edges/4
+	 * @param seed
+	 *            : long - seed of the random choices
+	 * @param path
+	 *            : boolean - add an edge leaving two vertices of odd degree
+	 * @param output
+	 *            : File - text file to write
+	 * @throws IOException
+	 */
+	public static void generate(String family, long edges, int nodes,
+			long seed, boolean path, File output) throws IOException {
+		int n;
+		long m;
+		switch (family) {
+		case "cycles":
+		case "powerlaw":
+			n = nodes > 0 ? nodes : (int) Math.max(2, edges / 4);
+			m = Math.max(edges, n);
+			break;
+		case "grid": {
+			int side = (int) Math.max(3, Math.sqrt(edges / 2.0));
+			n = side * side;
+			m = 2L * n;
+			break;
+		}
+		case "debruijn":
+			n = Integer.highestOneBit((int) Math.max(4,
+					Math.min(edges / 2, 1 << 30)));
+			m = 2L * n;
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown family " + family);
+		}
+		if (m + (path ? 1 : 0) > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(m + " edges do not fit in an int");
+		}
+
+		try (FileChannel fc = FileChannel.open(output.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			GraphGenerator gen = new GraphGenerator(fc, seed);
+			gen.putInt(n);
+			gen.put(' ');
+			gen.putInt((int) (m + (path ? 1 : 0)));
+			gen.put('\n');
+			switch (family) {
+			case "cycles":
+				gen.cycles(n, m, false);
+				break;
+			case "powerlaw":
+				gen.cycles(n, m, true);
+				break;
+			case "grid":
+				gen.grid((int) Math.sqrt(n));
+				break;
+			default:
+				gen.deBruijn(n);
+			}
+			if (path) {
+				gen.edge(1, n);
+			}
+			gen.flush();
+		}
+	}
+
+	/**
+	 * Method to write the base cycle through all the vertices and then
+	 * closed random walks until there are m edges
+	 */
+	private void cycles(int n, long m, boolean powerLaw) throws IOException {
+		// i -> a*i+b (mod n) with a prime to n visits every vertex once, a
+		// random order without an array of n vertices
+		long a = 1 + rnd.nextLong(Math.max(1, n - 1));
+		while (gcd(a, n) != 1) {
+			a = 1 + rnd.nextLong(Math.max(1, n - 1));
+		}
+		long b = rnd.nextLong(n);
+		int first = (int) (b % n) + 1;
+		int prev = first;
+		for (long i = 1; i < n; i++) {
+			int v = (int) ((a * i + b) % n) + 1;
+			edge(prev, v);
+			prev = v;
+		}
+		edge(prev, first);
+
+		while (written < m) {
+			long length = Math.min(m - written, 1 + rnd.nextInt(MAX_CYCLE));
+			int start = pick(n, powerLaw);
+			prev = start;
+			for (long i = 1; i < length; i++) {
+				int v = pick(n, powerLaw);
+				edge(prev, v);
+				prev = v;
+			}
+			edge(prev, start);
+		}
+	}
+
+	/**
+	 * Method to pick a vertex, uniformly or skewed towards small numbers
+	 */
+	private int pick(int n, boolean powerLaw) {
+		if (!powerLaw) {
+			return 1 + rnd.nextInt(n);
+		}
+		double u = rnd.nextDouble();
+		return 1 + (int) Math.min(n - 1, (long) (n * u * u * u));
+	}
+
+	/**
+	 * Method to write the torus of side x side vertices
+	 */
+	private void grid(int side) throws IOException {
+		for (int r = 0; r < side; r++) {
+			for (int c = 0; c < side; c++) {
+				int v = r * side + c + 1;
+				edge(v, r * side + (c + 1) % side + 1);
+				edge(v, ((r + 1) % side) * side + c + 1);
+			}
+		}
+	}
+
+	/**
+	 * Method to write the binary de Bruijn graph on n vertices, n a power of
+	 * two: vertex x (0 based) has an edge to 2x and to 2x+1 mod n
+	 */
+	private void deBruijn(int n) throws IOException {
+		for (int x = 0; x < n; x++) {
+			int next = (int) ((2L * x) % n);
+			edge(x + 1, next + 1);
+			edge(x + 1, next + 2);
+		}
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	private void edge(int u, int v) throws IOException {
+		putInt(u);
+		put(' ');
+		putInt(v);
+		put(' ');
+		putInt(1 + rnd.nextInt(MAX_WEIGHT));
+		put('\n');
+		written++;
+	}
+
+	private void put(char c) throws IOException {
+		if (!buffer.hasRemaining()) {
+			flush();
+		}
+		buffer.put((byte) c);
+	}
+
+	private void putInt(int x) throws IOException {
+		if (buffer.remaining() < 11) {
+			flush();
+		}
+		int n = 0;
+		do {
+			digits[n++] = (byte) ('0' + x % 10);
+			x /= 10;
+		} while (x != 0);
+		while (n > 0) {
+			buffer.put(digits[--n]);
+		}
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	public static void main(String[] args) throws IOException {
+		String family = "cycles";
+		long edges = 1000000;
+		int nodes = 0;
+		long seed = 1;
+		boolean path = false;
+		boolean binary = false;
+		String output = null;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-family")) {
+				family = args[++i];
+			} else if (args[i].equals("-edges")) {
+				edges = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-nodes")) {
+				nodes = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-seed")) {
+				seed = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-path")) {
+				path = true;
+			} else if (args[i].equals("-binary")) {
+				binary = true;
+			} else {
+				output = args[i];
+			}
+		}
+		if (output == null) {
+			System.err
+					.println("Usage: java GraphGenerator -family cycles|powerlaw|grid|debruijn -edges M [-nodes N] [-seed S] [-path] [-binary] output");
+			System.exit(1);
+		}
+
+		File out = new File(output);
+		if (!binary) {
+			generate(family, edges, nodes, seed, path, out);
+			return;
+		}
+		// the text goes through the sorted runs of the converter,
+		// so the binary file is built without holding the graph either
+		File dir = out.getAbsoluteFile().getParentFile();
+		File text = File.createTempFile("graph", ".txt", dir);
+		try {
+			generate(family, edges, nodes, seed, path, text);
+			BinaryGraphFile.convert(text, out, dir, BinaryGraphFile.RUN_EDGES);
+		} finally {
+			text.delete();
+		}
+	}
+}
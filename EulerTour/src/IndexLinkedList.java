@@ -0,0 +1,210 @@
+
+/**
+ * IndexLinkedList - Doubly linked list of the ints 0..capacity-1 (edge ids)
+ * with the links kept in int arrays indexed by the element, so there is no
+ * Entry object per element. An element is its own index: addAndGetIndex(x)
+ * returns x and mergeListBefore splices before that element in O(1), as in
+ * DoublyLinkedList. Lists created with the sharing constructor use the same
+ * link arrays, which is what lets a list be spliced into another in O(1).
+ * An element can be in at most one of the lists sharing the arrays.
+ * @author rameshsuthan
+ *
+ */
+public class IndexLinkedList {
+	public static final int NIL = -1; // end of the list
+
+	private final int[] next; // next[x]: element after x
+	private final int[] prev; // prev[x]: element before x
+	int head, tail; // first and last element, NIL if empty
+	int size; // size
+
+	/**
+	 * Constructor for an empty list of elements 0..capacity-1
+	 *
+	 * @param capacity
+	 *            : int - number of elements
+	 */
+	public IndexLinkedList(int capacity) {
+		next = new int[capacity];
+		prev = new int[capacity];
+		head = tail = NIL;
+		size = 0;
+	}
+
+	/**
+	 * Constructor for an empty list sharing the link arrays of the given list
+	 *
+	 * @param pool
+	 *            : IndexLinkedList - list whose arrays are shared
+	 */
+	public IndexLinkedList(IndexLinkedList pool) {
+		next = pool.next;
+		prev = pool.prev;
+		head = tail = NIL;
+		size = 0;
+	}
+
+	/**
+	 * Method to add an element at the end of the list
+	 *
+	 * @param x
+	 *            :element to be added to the list
+	 */
+	public void add(int x) {
+		next[x] = NIL;
+		prev[x] = tail;
+		if (tail == NIL) {
+			head = x;
+		} else {
+			next[tail] = x;
+		}
+		tail = x;
+		size++;
+	}
+
+	/**
+	 * Method to add an element and get its index in the list
+	 *
+	 * @param x
+	 *            :element to be added to the list
+	 * @return index of the element, which is x itself
+	 */
+	public int addAndGetIndex(int x) {
+		add(x);
+		return x;
+	}
+
+	/**
+	 * Method to merge the second input list into the current list before the
+	 * given index position. The second list is left empty.
+	 *
+	 * @param index
+	 *            : index position, an element of the current list
+	 * @param secList
+	 *            :second list, sharing the link arrays of this list
+	 */
+	public void mergeListBefore(int index, IndexLinkedList secList) {
+		if (secList.size == 0) {
+			return;
+		}
+		// if the current list is empty just take over the second list
+		if (head == NIL) {
+			head = secList.head;
+			tail = secList.tail;
+		} else {
+			int prevNode = prev[index];
+			prev[index] = secList.tail;
+			next[secList.tail] = index;
+			prev[secList.head] = prevNode;
+			if (prevNode == NIL) {
+				head = secList.head;
+			} else {
+				next[prevNode] = secList.head;
+			}
+		}
+		size += secList.size;
+		secList.clear();
+	}
+
+	/**
+	 * Method to remove an element from the list
+	 *
+	 * @param x
+	 *            : element of the list
+	 */
+	public void remove(int x) {
+		if (prev[x] == NIL) {
+			head = next[x];
+		} else {
+			next[prev[x]] = next[x];
+		}
+		if (next[x] == NIL) {
+			tail = prev[x];
+		} else {
+			prev[next[x]] = prev[x];
+		}
+		size--;
+	}
+
+	/**
+	 * Method to rotate the list so that it starts with the given element. The
+	 * elements before it are moved, in order, to the end.
+	 *
+	 * @param x
+	 *            : element of the list
+	 */
+	public void rotateTo(int x) {
+		if (x == head) {
+			return;
+		}
+		next[tail] = head;
+		prev[head] = tail;
+		tail = prev[x];
+		next[tail] = NIL;
+		prev[x] = NIL;
+		head = x;
+	}
+
+	/**
+	 * Method to reverse the order of the list
+	 */
+	public void reverse() {
+		int x = head;
+		while (x != NIL) {
+			int n = next[x];
+			next[x] = prev[x];
+			prev[x] = n;
+			x = n;
+		}
+		int h = head;
+		head = tail;
+		tail = h;
+	}
+
+	/**
+	 * Method to clear the list. The link arrays are not touched.
+	 */
+	public void clear() {
+		head = tail = NIL;
+		size = 0;
+	}
+
+	/**
+	 * @return first element of the list, NIL if empty
+	 */
+	public int first() {
+		return head;
+	}
+
+	/**
+	 * @return last element of the list, NIL if empty
+	 */
+	public int last() {
+		return tail;
+	}
+
+	/**
+	 * @param x
+	 *            : element of the list
+	 * @return element after x, NIL if x is the last one
+	 */
+	public int next(int x) {
+		return next[x];
+	}
+
+	/**
+	 * @param x
+	 *            : element of the list
+	 * @return element before x, NIL if x is the first one
+	 */
+	public int prev(int x) {
+		return prev[x];
+	}
+
+	/**
+	 * @return number of elements in the list
+	 */
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,205 @@
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/**
+ * IndexedEulerTour - Finds the Euler Tour or Euler Path of a Graph the same
+ * way as Euler.findEulerTour, but keeps the tour in an IndexLinkedList of
+ * edge ids instead of a DoublyLinkedList of Entry objects
+ * @author rameshsuthan
+ *
+ */
+public class IndexedEulerTour {
+	/**
+	 * Method to find the euler tour in the given graph g and starting at the
+	 * vertex sVertex, keeping the tour in an IndexLinkedList
+	 * 
+	 * @param g
+	 *            - Input Graph(Must be a Euler Graph)
+	 * @param sVertex
+	 *            - Source Vertex from where the tour starts
+	 * @return IndexLinkedList: ids of the edges in the euler tour
+	 */
+	public static IndexLinkedList hierholzerAlgorithm(Graph g,
+			Vertex sVertex) {
+		EulerContext ctx = EulerContext.acquire();
+		try {
+			ctx.reset(g);
+			return hierholzerAlgorithm(g, sVertex, ctx);
+		} finally {
+			ctx.release();
+		}
+	}
+
+	/**
+	 * Method to find the euler tour in the given graph g and starting at the
+	 * vertex sVertex, the same way as hierholzerAlgorithm, but the tour is
+	 * kept in an IndexLinkedList of edge ids instead of a DoublyLinkedList of
+	 * Entry objects. The current tour and the full tour share the link
+	 * arrays, so joining them is still O(1).
+	 * 
+	 * @param g
+	 *            - Input Graph(Must be a Euler Graph, with the fake edge of
+	 *            the context)
+	 * @param sVertex
+	 *            - Source Vertex from where the tour starts
+	 * @param ctx
+	 *            - scratch state, reset for g
+	 * @return IndexLinkedList: ids of the edges in the euler tour
+	 */
+	public static IndexLinkedList hierholzerAlgorithm(Graph g,
+			Vertex sVertex, EulerContext ctx) {
+		Vertex currVertex = sVertex;
+
+		// room for the fake edge, whose id is numEdges
+		IndexLinkedList fullTour = new IndexLinkedList(g.numEdges + 1);
+		IndexLinkedList currentTour = new IndexLinkedList(fullTour);
+
+		// index of First edge containing the vertex in the tour
+		int[] index = new int[g.numNodes + 1];
+		Arrays.fill(index, IndexLinkedList.NIL);
+
+		LinkedList<Vertex> vertexWithUnusedEdgeList = new LinkedList<Vertex>();
+		int subCircuits = 0;
+
+		while (currVertex != null) {
+
+			Edge edge = Euler.nextUnusedEdge(currVertex, ctx);
+			ctx.use(edge);
+
+			int indexInTour = currentTour.addAndGetIndex(edge.id);
+			if (index[currVertex.name] == IndexLinkedList.NIL
+					&& Euler.nextUnusedEdge(currVertex, ctx) != null) {
+				index[currVertex.name] = indexInTour;
+				vertexWithUnusedEdgeList.add(currVertex);
+				Euler.checkHub(currVertex, ctx);
+			}
+
+			currVertex = edge.otherEnd(currVertex);
+
+			if (currVertex == sVertex) {
+				EulerEvents.splice(currentTour.size(), sVertex.name);
+				fullTour.mergeListBefore(index[sVertex.name], currentTour);
+				subCircuits++;
+				sVertex = Euler.getNextVertexWithUnusedEdges(
+						vertexWithUnusedEdgeList, ctx);
+				currVertex = sVertex;
+			}
+		}
+
+		if (ctx.stats != null) {
+			ctx.stats.subCircuits += subCircuits;
+		}
+		return fullTour;
+	}
+
+	/**
+	 * Method to find Euler tour or Euler path in the given graph if it is
+	 * Eulerian Graph, keeping the tour in an IndexLinkedList
+	 * 
+	 * @param g
+	 *            - input graph
+	 * @return IndexLinkedList: ids of the edges in Euler Tour or Euler Path,
+	 *         see Graph.edges
+	 */
+	public static IndexLinkedList findEulerTour(Graph g) {
+		EulerContext ctx = EulerContext.acquire();
+		try {
+			return findEulerTour(g, null, ctx);
+		} finally {
+			ctx.release();
+		}
+	}
+
+	/**
+	 * Method to find Euler tour or Euler path in the given graph if it is
+	 * Eulerian Graph, starting at the given vertex and keeping the tour in an
+	 * IndexLinkedList. The graph is not modified.
+	 * 
+	 * @param g
+	 *            - input graph
+	 * @param start
+	 *            - vertex the tour starts at, null for the default
+	 * @param ctx
+	 *            - scratch state of the search
+	 * @return IndexLinkedList: ids of the edges in Euler Tour or Euler Path,
+	 *         see Graph.edges
+	 */
+	public static IndexLinkedList findEulerTour(Graph g, Vertex start,
+			EulerContext ctx) {
+		Vertex[] ends = new Vertex[2];
+		int eulerType;
+
+		if (!Euler.hasTour(g)) {
+			return null;
+		}
+
+		if (g.directed) {
+			IndexLinkedList tour = new IndexLinkedList(g.numEdges);
+			return Euler.findDirectedEulerTour(g, start, e -> tour.add(e.id),
+					ctx) ? tour : null;
+		}
+
+		ctx.reset(g);
+		if ((eulerType = Euler.findEnds(g, start, ends, ctx)) == -1) {
+			return null;
+		}
+		if (eulerType == 0) {
+			IndexLinkedList eulerTour = hierholzerAlgorithm(g, ends[0],
+					ctx);
+			Euler.lap(ctx, EulerStats.Phase.TOUR);
+			return eulerTour;
+		}
+
+		// close the path into a circuit with a fake edge, then cut the
+		// circuit open at the fake edge
+		Edge fakeEdge = new Edge(ends[0], ends[1], 1);
+		fakeEdge.id = g.numEdges;
+		ctx.fakeEdge = fakeEdge;
+		IndexLinkedList eulerTour = hierholzerAlgorithm(g, ends[0], ctx);
+		Euler.lap(ctx, EulerStats.Phase.TOUR);
+		EulerEvents.PathFold fold = new EulerEvents.PathFold();
+		fold.begin();
+		getEulerPath(g, eulerTour, fakeEdge, ends[0]);
+		if (fold.shouldCommit()) {
+			fold.edges = eulerTour.size();
+			fold.commit();
+		}
+		Euler.lap(ctx, EulerStats.Phase.PATH);
+		return eulerTour;
+	}
+
+	/**
+	 * Method to turn the euler tour containing the fake edge into the euler
+	 * path starting at startVertex. The circuit is rotated to start right
+	 * after the fake edge, the fake edge is removed and the path is reversed
+	 * if it runs the other way. The tour is changed in place.
+	 * 
+	 * @param g
+	 *            - graph of the tour
+	 * @param eulerTour
+	 *            - euler tour starting at startVertex
+	 * @param fakeEdge
+	 *            - edge between the two odd degree vertices
+	 * @param startVertex
+	 *            - vertex the path must start with
+	 */
+	public static void getEulerPath(Graph g, IndexLinkedList eulerTour,
+			Edge fakeEdge, Vertex startVertex) {
+		// find the vertex the tour is at when it takes the fake edge
+		Vertex u = startVertex;
+		int x = eulerTour.first();
+		while (x != fakeEdge.id) {
+			u = g.edges.get(x).otherEnd(u);
+			x = eulerTour.next(x);
+		}
+
+		if (eulerTour.next(x) != IndexLinkedList.NIL) {
+			eulerTour.rotateTo(eulerTour.next(x));
+		}
+		eulerTour.remove(x);
+		// the path now runs from the other end of the fake edge to u
+		if (fakeEdge.otherEnd(u) != startVertex) {
+			eulerTour.reverse();
+		}
+	}
+}
@@ -0,0 +1,159 @@
+import java.nio.IntBuffer;
+import java.util.function.IntFunction;
+
+/**
+ * IntArray - Array of ints addressed by a long index. The ints are kept in
+ * chunks of CHUNK ints, so the array is bound neither by the 2^31-1
+ * elements of a Java array nor by the 2^31-1 bytes of one direct buffer or
+ * file mapping. A chunk is an IntBuffer: part of a heap array, an OffHeap
+ * buffer or a region of a file mapped by BinaryGraphFile.
+ * @author rameshsuthan
+ *
+ */
+public class IntArray {
+	static final int SHIFT = 28; // a chunk holds 2^28 ints, 1 GB
+	static final long CHUNK = 1L << SHIFT;
+	private static final int MASK = (1 << SHIFT) - 1;
+
+	private final IntBuffer[] chunks; // every chunk but the last is full
+	private final long length;
+
+	/**
+	 * Constructor for an array over the given chunks, used by OffHeap and
+	 * BinaryGraphFile
+	 *
+	 * @param chunks
+	 *            : IntBuffer[] - CHUNK ints each, the last one may be shorter
+	 * @param length
+	 *            : long - number of ints
+	 */
+	IntArray(IntBuffer[] chunks, long length) {
+		this.chunks = chunks;
+		this.length = length;
+	}
+
+	/**
+	 * Method to allocate an array of count zeros on the heap
+	 *
+	 * @param count
+	 *            : long - number of ints
+	 * @return IntArray
+	 */
+	public static IntArray allocate(long count) {
+		return allocate(count, size -> IntBuffer.wrap(new int[size]));
+	}
+
+	/**
+	 * Method to allocate an array whose chunks are created by allocate
+	 *
+	 * @param count
+	 *            : long - number of ints
+	 * @param allocate
+	 *            : IntFunction - creates a chunk of the given number of ints
+	 * @return IntArray
+	 */
+	static IntArray allocate(long count, IntFunction<IntBuffer> allocate) {
+		IntBuffer[] chunks = new IntBuffer[chunkCount(count)];
+		for (int c = 0; c < chunks.length; c++) {
+			chunks[c] = allocate.apply(chunkSize(count, c));
+		}
+		return new IntArray(chunks, count);
+	}
+
+	/**
+	 * Method to view the given heap array as an IntArray, without a copy
+	 *
+	 * @param a
+	 *            : int[] - array to wrap
+	 * @return IntArray
+	 */
+	public static IntArray wrap(int[] a) {
+		IntBuffer[] chunks = new IntBuffer[chunkCount(a.length)];
+		for (int c = 0; c < chunks.length; c++) {
+			chunks[c] = IntBuffer.wrap(a, (int) (c * CHUNK),
+					chunkSize(a.length, c)).slice();
+		}
+		return new IntArray(chunks, a.length);
+	}
+
+	/**
+	 * Method to get the number of chunks of an array of count ints, an
+	 * empty array has one empty chunk
+	 */
+	static int chunkCount(long count) {
+		return (int) Math.max(1, (count + CHUNK - 1) >>> SHIFT);
+	}
+
+	/**
+	 * Method to get the number of ints in chunk c of an array of count ints
+	 */
+	static int chunkSize(long count, int c) {
+		return (int) Math.min(CHUNK, count - c * CHUNK);
+	}
+
+	/**
+	 * Method to get the int at the given index
+	 *
+	 * @param i
+	 *            : long - index
+	 * @return int
+	 */
+	public int get(long i) {
+		return chunks[(int) (i >>> SHIFT)].get((int) i & MASK);
+	}
+
+	/**
+	 * Method to set the int at the given index
+	 *
+	 * @param i
+	 *            : long - index
+	 * @param x
+	 *            : int - value
+	 */
+	public void put(long i, int x) {
+		chunks[(int) (i >>> SHIFT)].put((int) i & MASK, x);
+	}
+
+	/**
+	 * Method to copy count ints of src, from offset on, to the array from
+	 * index i on
+	 *
+	 * @param i
+	 *            : long - first index written
+	 * @param src
+	 *            : int[] - ints to copy
+	 * @param offset
+	 *            : int - first int of src copied
+	 * @param count
+	 *            : int - number of ints copied
+	 */
+	public void put(long i, int[] src, int offset, int count) {
+		while (count > 0) {
+			IntBuffer chunk = chunks[(int) (i >>> SHIFT)];
+			int at = (int) i & MASK;
+			int n = Math.min(count, chunk.capacity() - at);
+			chunk.put(at, src, offset, n);
+			i += n;
+			offset += n;
+			count -= n;
+		}
+	}
+
+	/**
+	 * Method to get the number of ints in the array
+	 *
+	 * @return long
+	 */
+	public long length() {
+		return length;
+	}
+
+	/**
+	 * Method to tell whether the ints live outside the heap
+	 *
+	 * @return true if the chunks are direct buffers
+	 */
+	public boolean isDirect() {
+		return chunks[0].isDirect();
+	}
+}
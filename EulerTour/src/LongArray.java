@@ -0,0 +1,116 @@
+import java.nio.LongBuffer;
+import java.util.function.IntFunction;
+
+/**
+ * LongArray - Array of longs addressed by a long index, kept in chunks of
+ * CHUNK longs like the ints of an IntArray
+ * @author rameshsuthan
+ *
+ */
+public class LongArray {
+	static final int SHIFT = 27; // a chunk holds 2^27 longs, 1 GB
+	static final long CHUNK = 1L << SHIFT;
+	private static final int MASK = (1 << SHIFT) - 1;
+
+	private final LongBuffer[] chunks; // every chunk but the last is full
+	private final long length;
+
+	/**
+	 * Constructor for an array over the given chunks
+	 *
+	 * @param chunks
+	 *            : LongBuffer[] - CHUNK longs each, the last one may be
+	 *            shorter
+	 * @param length
+	 *            : long - number of longs
+	 */
+	LongArray(LongBuffer[] chunks, long length) {
+		this.chunks = chunks;
+		this.length = length;
+	}
+
+	/**
+	 * Method to allocate an array of count zeros on the heap
+	 *
+	 * @param count
+	 *            : long - number of longs
+	 * @return LongArray
+	 */
+	public static LongArray allocate(long count) {
+		return allocate(count, size -> LongBuffer.wrap(new long[size]));
+	}
+
+	/**
+	 * Method to allocate an array whose chunks are created by allocate
+	 *
+	 * @param count
+	 *            : long - number of longs
+	 * @param allocate
+	 *            : IntFunction - creates a chunk of the given number of longs
+	 * @return LongArray
+	 */
+	static LongArray allocate(long count, IntFunction<LongBuffer> allocate) {
+		LongBuffer[] chunks = new LongBuffer[chunkCount(count)];
+		for (int c = 0; c < chunks.length; c++) {
+			chunks[c] = allocate.apply(chunkSize(count, c));
+		}
+		return new LongArray(chunks, count);
+	}
+
+	/**
+	 * Method to get the number of chunks of an array of count longs, an
+	 * empty array has one empty chunk
+	 */
+	static int chunkCount(long count) {
+		return (int) Math.max(1, (count + CHUNK - 1) >>> SHIFT);
+	}
+
+	/**
+	 * Method to get the number of longs in chunk c of an array of count
+	 * longs
+	 */
+	static int chunkSize(long count, int c) {
+		return (int) Math.min(CHUNK, count - c * CHUNK);
+	}
+
+	/**
+	 * Method to get the long at the given index
+	 *
+	 * @param i
+	 *            : long - index
+	 * @return long
+	 */
+	public long get(long i) {
+		return chunks[(int) (i >>> SHIFT)].get((int) i & MASK);
+	}
+
+	/**
+	 * Method to set the long at the given index
+	 *
+	 * @param i
+	 *            : long - index
+	 * @param x
+	 *            : long - value
+	 */
+	public void put(long i, long x) {
+		chunks[(int) (i >>> SHIFT)].put((int) i & MASK, x);
+	}
+
+	/**
+	 * Method to get the number of longs in the array
+	 *
+	 * @return long
+	 */
+	public long length() {
+		return length;
+	}
+
+	/**
+	 * Method to tell whether the longs live outside the heap
+	 *
+	 * @return true if the chunks are direct buffers
+	 */
+	public boolean isDirect() {
+		return chunks[0].isDirect();
+	}
+}
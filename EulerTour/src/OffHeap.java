@@ -0,0 +1,48 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * OffHeap - Allocates the arrays of a graph and of the tour search outside
+ * the Java heap, as direct buffers in native byte order. The garbage
+ * collector neither scans nor copies their contents, and their memory is
+ * limited by -XX:MaxDirectMemorySize instead of -Xmx. The memory comes back
+ * zero filled and is released when the buffers are collected. A direct
+ * buffer holds at most 2^31-1 bytes, so an array is made of one buffer per
+ * chunk of IntArray or LongArray and its size is limited only by the
+ * memory.
+ * @author rameshsuthan
+ *
+ */
+public class OffHeap {
+	/**
+	 * Method to allocate an off heap array of ints
+	 *
+	 * @param count
+	 *            : long - number of ints
+	 * @return IntArray of count zeros
+	 */
+	public static IntArray allocateInts(long count) {
+		return IntArray.allocate(count, size -> allocate(4L * size)
+				.asIntBuffer());
+	}
+
+	/**
+	 * Method to allocate an off heap array of longs
+	 *
+	 * @param count
+	 *            : long - number of longs
+	 * @return LongArray of count zeros
+	 */
+	public static LongArray allocateLongs(long count) {
+		return LongArray.allocate(count, size -> allocate(8L * size)
+				.asLongBuffer());
+	}
+
+	/**
+	 * Method to allocate one chunk, at most 1 GB
+	 */
+	private static ByteBuffer allocate(long bytes) {
+		return ByteBuffer.allocateDirect((int) bytes).order(
+				ByteOrder.nativeOrder());
+	}
+}
@@ -0,0 +1,109 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * ParallelConnectivity - Connectivity check with a concurrent union-find
+ * over the edges, run on the common fork-join pool. The union of the ends of
+ * every edge is done in parallel without locks: a root is always linked
+ * below a smaller numbered root with a compare-and-set, so the root of a
+ * component is its smallest vertex and the graph is connected when every
+ * vertex finds vertex 1 as its root. Gives the same answer as the BFS in
+ * Euler.isConnected, every vertex (isolated ones included) must be reached.
+ * @author rameshsuthan
+ *
+ */
+public class ParallelConnectivity {
+	// graphs with fewer edges are checked faster by the sequential BFS
+	public static final int THRESHOLD = 1 << 20;
+
+	/**
+	 * Method to determine whether the given compact graph is connected
+	 *
+	 * @param g
+	 *            - input graph
+	 * @return :true if the graph is connected,else return false
+	 */
+	public static boolean isConnected(CsrGraph g) {
+		AtomicIntegerArray parent = newForest(g.numNodes);
+		IntStream.range(0, g.numEdges).parallel()
+				.forEach(e -> union(parent, g.from.get(e), g.to.get(e)));
+		return allInComponentOfOne(parent, g.numNodes);
+	}
+
+	/**
+	 * Method to determine whether the given graph is connected
+	 *
+	 * @param g
+	 *            - input graph
+	 * @return :true if the graph is connected,else return false
+	 */
+	public static boolean isConnected(Graph g) {
+		AtomicIntegerArray parent = newForest(g.numNodes);
+		IntStream.range(0, g.numEdges).parallel().forEach(i -> {
+			Edge e = g.edges.get(i);
+			union(parent, e.From.name, e.To.name);
+		});
+		return allInComponentOfOne(parent, g.numNodes);
+	}
+
+	/**
+	 * Method to create the forest where every element 0..n is its own root
+	 */
+	static AtomicIntegerArray newForest(int n) {
+		AtomicIntegerArray parent = new AtomicIntegerArray(n + 1);
+		for (int v = 0; v <= n; v++) {
+			parent.lazySet(v, v);
+		}
+		return parent;
+	}
+
+	private static boolean allInComponentOfOne(AtomicIntegerArray parent,
+			int n) {
+		return IntStream.rangeClosed(1, n).parallel()
+				.allMatch(v -> find(parent, v) == 1);
+	}
+
+	/**
+	 * Method to find the root of x, halving the path on the way
+	 */
+	static int find(AtomicIntegerArray parent, int x) {
+		while (true) {
+			int p = parent.get(x);
+			if (p == x) {
+				return x;
+			}
+			int gp = parent.get(p);
+			if (gp == p) {
+				return p;
+			}
+			// gp is an ancestor of x whatever other threads did meanwhile
+			parent.compareAndSet(x, p, gp);
+			x = gp;
+		}
+	}
+
+	/**
+	 * Method to join the components of a and b
+	 *
+	 * @return true if this call joined them, false if they were already one
+	 */
+	static boolean union(AtomicIntegerArray parent, int a, int b) {
+		while (true) {
+			a = find(parent, a);
+			b = find(parent, b);
+			if (a == b) {
+				return false;
+			}
+			if (a < b) {
+				int t = a;
+				a = b;
+				b = t;
+			}
+			// link the larger root below the smaller one, fails if a stopped
+			// being a root meanwhile
+			if (parent.compareAndSet(a, a, b)) {
+				return true;
+			}
+		}
+	}
+}
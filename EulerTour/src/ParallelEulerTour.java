@@ -0,0 +1,279 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * ParallelEulerTour - Builds the Euler tour of a compact graph on the common
+ * fork-join pool. Every vertex works on its own arcs only:
+ *
+ * 1. Each vertex pairs up its arcs, a walk arriving through one arc of a
+ * pair leaves through the other. This splits the edges into closed trails
+ * (plus one open trail between the two odd vertices of an Euler path).
+ *
+ * 2. The trails are labelled with a concurrent union-find over the edges,
+ * joining the two edges of every pair.
+ *
+ * 3. At every vertex the trails through it are joined in a second
+ * union-find. The pairs whose union succeeded belong to distinct trails, and
+ * rotating their partners (a1-b2, a2-b3, ..., ak-b1) splices those trails
+ * into one. The successful unions form a spanning tree of the trails, so
+ * after all the rotations a single trail is left. This is the parallel form
+ * of joining a sub circuit through Vertex.index and mergeListBefore.
+ *
+ * Only the final walk along the pairs, which hands the edges to the sink in
+ * tour order, is sequential.
+ * @author rameshsuthan
+ *
+ */
+public class ParallelEulerTour {
+	// the arcs are numbered in int arrays, which hold a little less than
+	// 2^31 elements
+	static final long MAX_ARCS = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Method to find Euler tour or Euler path in the given compact graph if
+	 * it is Eulerian Graph
+	 *
+	 * @param g
+	 *            - input graph
+	 * @return int[]: ids of the edges in the Euler Tour or Euler Path
+	 */
+	public static int[] findEulerTour(CsrGraph g) {
+		int[] tour = new int[g.numEdges];
+		int[] size = new int[1];
+		if (!findEulerTour(g, e -> tour[size[0]++] = e)) {
+			return null;
+		}
+		return tour;
+	}
+
+	/**
+	 * Method to find Euler tour or Euler path in the given compact graph if
+	 * it is Eulerian Graph. A circuit starts at vertex 1, a path at the
+	 * smaller numbered odd degree vertex.
+	 *
+	 * @param g
+	 *            - input graph
+	 * @param sink
+	 *            - receives the ids of the edges in tour order
+	 * @return true if the graph is Eulerian and the tour was emitted
+	 */
+	public static boolean findEulerTour(CsrGraph g, IntConsumer sink) {
+		return findEulerTour(g, sink, null);
+	}
+
+	/**
+	 * Method to find Euler tour or Euler path in the given compact graph,
+	 * counting the trails spliced into the tour as its sub circuits
+	 *
+	 * @param g
+	 *            - input graph
+	 * @param sink
+	 *            - receives the ids of the edges in tour order
+	 * @param stats
+	 *            - record of the solve, null when not measured
+	 * @return true if the graph is Eulerian and the tour was emitted
+	 * @throws IllegalArgumentException
+	 *             if the arcs do not fit in an int array
+	 */
+	public static boolean findEulerTour(CsrGraph g, IntConsumer sink,
+			EulerStats stats) {
+		if (2L * g.numEdges + 2 > MAX_ARCS) {
+			throw new IllegalArgumentException("The " + 2L * g.numEdges
+					+ " arcs of the graph are too many for ParallelEulerTour");
+		}
+		int[] eulerPathVertices = new int[2];
+		int eulerType;
+
+		if (!Euler.hasTour(g) || !CsrEulerTour.isConnected(g)
+				|| (eulerType = CsrEulerTour.isEuler(g,
+						eulerPathVertices)) == -1) {
+			return false;
+		}
+
+		// An Euler path is closed into a circuit with a virtual edge m from
+		// s to t, whose arcs 2m (at s) and 2m+1 (at t) come after the real
+		// arcs. The walk starts with it and leaves it out of the tour.
+		int s = 0, t = 0;
+		if (eulerType == 1) {
+			s = Math.min(eulerPathVertices[0], eulerPathVertices[1]);
+			t = Math.max(eulerPathVertices[0], eulerPathVertices[1]);
+		}
+		int[] mate = pairArcs(g, s, t);
+		int joined = joinTrails(g, mate);
+		if (stats != null) {
+			// the trails left by the pairing, all joined into one
+			stats.subCircuits += joined + 1;
+		}
+		int start = eulerType == 0 ? offset(g, 1) : 2 * g.numEdges + 1;
+		walk(g, mate, edgeArcs(g, eulerType == 1), start, sink);
+		return true;
+	}
+
+	/**
+	 * Method to get the first arc of vertex v, which fits in an int as the
+	 * arcs are at most MAX_ARCS
+	 */
+	private static int offset(CsrGraph g, int v) {
+		return (int) g.offsets.get(v);
+	}
+
+	/**
+	 * Method to get the edge of an arc, the virtual edge for its arcs
+	 */
+	private static int edgeOf(CsrGraph g, int arc) {
+		return arc < 2 * g.numEdges ? g.arcEdge.get(arc) : g.numEdges;
+	}
+
+	/**
+	 * Method to pair up the arcs of every vertex. The odd degree vertices s
+	 * and t pair their first arc with their arc of the virtual edge.
+	 *
+	 * @return mate[a]: the arc paired with arc a
+	 */
+	static int[] pairArcs(CsrGraph g, int s, int t) {
+		int virtual = 2 * g.numEdges;
+		int[] mate = new int[s == 0 ? virtual : virtual + 2];
+		IntStream.rangeClosed(1, g.numNodes).parallel().forEach(v -> {
+			int arc = offset(g, v);
+			int end = offset(g, v + 1);
+			int degree = end - arc;
+			if (degree > EulerEvents.HUB_DEGREE) {
+				// no edge is used when the arcs are paired
+				EulerEvents.hub(v, degree, () -> degree);
+			}
+			if (v == s || v == t) {
+				int va = v == s ? virtual : virtual + 1;
+				mate[arc] = va;
+				mate[va] = arc;
+				arc++;
+			}
+			for (; arc < end; arc += 2) {
+				mate[arc] = arc + 1;
+				mate[arc + 1] = arc;
+			}
+		});
+		return mate;
+	}
+
+	/**
+	 * Method to splice the trails given by the pairing into a single trail,
+	 * by rotating the partners of the arcs at the vertices where two trails
+	 * are joined. mate is changed in place. A pair is represented by its
+	 * smaller arc, the one with mate[arc] > arc.
+	 *
+	 * @return number of trails joined into another one
+	 */
+	static int joinTrails(CsrGraph g, int[] mate) {
+		// label the trails: the two edges of a pair are on the same trail
+		AtomicIntegerArray trail = ParallelConnectivity.newForest(g.numEdges);
+		IntStream.rangeClosed(1, g.numNodes).parallel().forEach(v -> {
+			for (int arc = offset(g, v), end = offset(g, v + 1); arc < end; arc++) {
+				if (mate[arc] > arc) {
+					ParallelConnectivity.union(trail, edgeOf(g, arc),
+							edgeOf(g, mate[arc]));
+				}
+			}
+		});
+
+		// edges on every trail, only counted for the splice events
+		int[] trailEdges = null;
+		if (new EulerEvents.Splice().isEnabled()) {
+			trailEdges = new int[g.numEdges + 1];
+			for (int e = 0; e < g.numEdges; e++) {
+				trailEdges[ParallelConnectivity.find(trail, e)]++;
+			}
+		}
+		int[] lengths = trailEdges;
+
+		// join the trails through every vertex to the trail of its first
+		// pair, and rotate the pairs whose trail was joined here
+		AtomicIntegerArray joined = ParallelConnectivity.newForest(g.numEdges);
+		return IntStream.rangeClosed(1, g.numNodes).parallel().map(v -> {
+			int firstTrail = -1;
+			int[] rotate = null;
+			int size = 0;
+			for (int arc = offset(g, v), end = offset(g, v + 1); arc < end; arc++) {
+				if (mate[arc] < arc) {
+					continue;
+				}
+				int t = ParallelConnectivity.find(trail, edgeOf(g, arc));
+				if (firstTrail < 0) {
+					firstTrail = t;
+					rotate = new int[4];
+					rotate[size++] = arc;
+				} else if (ParallelConnectivity.union(joined, firstTrail, t)) {
+					if (size == rotate.length) {
+						rotate = Arrays.copyOf(rotate, size << 1);
+					}
+					rotate[size++] = arc;
+					if (lengths != null) {
+						EulerEvents.splice(lengths[t], v);
+					}
+				}
+			}
+			if (size > 1) {
+				// a1-b2, a2-b3, ..., ak-b1 where bi = mate[ai]
+				int b1 = mate[rotate[0]];
+				for (int i = 0; i < size; i++) {
+					int a = rotate[i];
+					int b = i + 1 < size ? mate[rotate[i + 1]] : b1;
+					mate[a] = b;
+					mate[b] = a;
+				}
+			}
+			return Math.max(0, size - 1);
+		}).sum();
+	}
+
+	/**
+	 * Method to find both arcs of every edge
+	 *
+	 * @param virtual
+	 *            - true to add the arcs of the virtual edge
+	 * @return edgeArcs[2e], edgeArcs[2e+1]: the two arcs of edge e
+	 */
+	static int[] edgeArcs(CsrGraph g, boolean virtual) {
+		int[] edgeArcs = new int[2 * g.numEdges + (virtual ? 2 : 0)];
+		if (virtual) {
+			edgeArcs[2 * g.numEdges] = 2 * g.numEdges;
+			edgeArcs[2 * g.numEdges + 1] = 2 * g.numEdges + 1;
+		}
+		IntStream.rangeClosed(1, g.numNodes).parallel().forEach(v -> {
+			for (int arc = offset(g, v), end = offset(g, v + 1); arc < end; arc++) {
+				int e = g.arcEdge.get(arc);
+				boolean second;
+				if (g.from.get(e) != g.to.get(e)) {
+					second = g.to.get(e) == v;
+				} else {
+					// both arcs of a self loop are next to each other
+					second = arc > offset(g, v)
+							&& g.arcEdge.get(arc - 1) == e;
+				}
+				edgeArcs[2 * e + (second ? 1 : 0)] = arc;
+			}
+		});
+		return edgeArcs;
+	}
+
+	/**
+	 * Method to walk the single trail from the start arc, leaving every
+	 * vertex through the partner of the arc it arrived by. The virtual edge
+	 * is not handed to the sink.
+	 */
+	static void walk(CsrGraph g, int[] mate, int[] edgeArcs, int start,
+			IntConsumer sink) {
+		int arc = start;
+		do {
+			int e = edgeOf(g, arc);
+			if (e != g.numEdges) {
+				sink.accept(e);
+			}
+			// the arc of e at the other end
+			int back = edgeArcs[2 * e] == arc ? edgeArcs[2 * e + 1]
+					: edgeArcs[2 * e];
+			arc = mate[back];
+		} while (arc != start);
+	}
+}
@@ -0,0 +1,402 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RouteInspection - Cheapest closed walk covering every edge of a graph
+ * that is not Eulerian (the route inspection, or Chinese postman, problem).
+ * It generalises the fake edge of Euler.getEulerPath: the odd vertices are
+ * paired, the shortest path between the two vertices of every pair is
+ * walked twice by duplicating its edges, and the Euler engine then runs on
+ * the augmented multigraph, where every degree is even. The weights are the
+ * Edge.Weight of the graph and must not be negative.
+ *
+ * The pairing is a minimum weight perfect matching of the odd vertices over
+ * their shortest path distances. It is exact, by dynamic programming over
+ * the subsets of odd vertices, for up to EXACT_LIMIT odd vertices. For more
+ * the greedy matching handles hundreds of thousands of them: a Dijkstra
+ * from all the unmatched odd vertices at once gives every vertex its
+ * nearest odd vertex, every edge joining the regions of two odd vertices
+ * gives a candidate pair, and the candidates are matched cheapest first.
+ * Rounds repeat until every odd vertex is matched. Once a round matches
+ * less than 1/MIN_ROUND_SHARE of the vertices it started with, the rest are paired
+ * in one pass along a shortest path tree instead, which bounds the rounds
+ * by O(log k).
+ * @author rameshsuthan
+ *
+ */
+public class RouteInspection {
+	// odd vertices the exact matching handles, it takes 2^k steps
+	public static final int EXACT_LIMIT = 20;
+	// a greedy round must match 1/MIN_ROUND_SHARE of its odd vertices
+	static final int MIN_ROUND_SHARE = 4;
+
+	/**
+	 * Route - the closed walk found, over the augmented graph
+	 *
+	 */
+	public static class Route {
+		public Graph graph; // the graph with the duplicated edges
+		public DoublyLinkedList<Edge> tour; // closed walk over graph
+		public int[] origin; // id in the input graph of every edge of graph
+		public long cost; // total weight of the walk
+		public long addedCost; // weight of the duplicated edges
+		public int addedEdges; // number of duplicated edges
+	}
+
+	/**
+	 * Method to find the cheapest closed walk covering every edge of g
+	 *
+	 * @param g
+	 *            : Graph - undirected input graph
+	 * @param greedy
+	 *            : boolean - pair the odd vertices greedily instead of
+	 *            exactly
+	 * @return Route, null if the edges of g are not connected. A graph
+	 *         without edges gives an empty route of cost 0.
+	 * @throws IllegalArgumentException
+	 *             if g is directed, has a negative weight, or has more than
+	 *             EXACT_LIMIT odd vertices without greedy
+	 */
+	public static Route solve(Graph g, boolean greedy) {
+		return solve(g, greedy, null);
+	}
+
+	/**
+	 * Method to find the cheapest closed walk covering every edge of g,
+	 * counting the sub circuits of the walk in stats
+	 *
+	 * @param g
+	 *            : Graph - undirected input graph
+	 * @param greedy
+	 *            : boolean - pair the odd vertices greedily instead of
+	 *            exactly
+	 * @param stats
+	 *            : EulerStats - record of the solve, null when not measured
+	 * @return Route, null if the edges of g are not connected
+	 */
+	public static Route solve(Graph g, boolean greedy, EulerStats stats) {
+		if (g.directed) {
+			throw new IllegalArgumentException(
+					"Route inspection of a directed graph is not supported");
+		}
+		for (Edge e : g.edges) {
+			if (e.Weight < 0) {
+				throw new IllegalArgumentException("Negative weight on edge " + e);
+			}
+		}
+		Route route = new Route();
+		if (g.numEdges == 0) {
+			route.graph = new Graph(g.numNodes);
+			route.tour = new DoublyLinkedList<>();
+			route.origin = new int[0];
+			return route;
+		}
+		// isolated vertices do not matter, the edges must be connected
+		List<ComponentTours.Component> components = ComponentTours.label(g);
+		if (components.size() != 1) {
+			return null;
+		}
+
+		int[] odd = new int[components.get(0).oddVertices];
+		int k = 0;
+		for (int v = 1; v <= g.numNodes; v++) {
+			if (g.verts.get(v).Adj.size() % 2 != 0) {
+				odd[k++] = v;
+			}
+		}
+		if (!greedy && odd.length > EXACT_LIMIT) {
+			throw new IllegalArgumentException(odd.length
+					+ " odd vertices, the exact matching handles up to "
+					+ EXACT_LIMIT + ", use the greedy matching");
+		}
+
+		// copy the graph, the input keeps its edges and their ids
+		Graph a = new Graph(g.numNodes);
+		List<Integer> origin = new ArrayList<>(g.numEdges);
+		for (Edge e : g.edges) {
+			a.addEdge(e.From.name, e.To.name, e.Weight);
+			origin.add(e.id);
+			route.cost += e.Weight;
+		}
+		List<Edge> added = greedy ? matchGreedy(g, odd) : matchExact(g, odd);
+		for (Edge e : added) {
+			a.addEdge(e.From.name, e.To.name, e.Weight);
+			origin.add(e.id);
+			route.addedCost += e.Weight;
+		}
+		route.cost += route.addedCost;
+		route.addedEdges = added.size();
+		route.graph = a;
+		route.origin = origin.stream().mapToInt(Integer::intValue).toArray();
+
+		// every degree is even now, the walk starts at the smallest vertex
+		// with edges
+		EulerContext ctx = EulerContext.acquire();
+		try {
+			ctx.reset(a);
+			ctx.stats = stats;
+			if (stats != null) {
+				stats.graph(a);
+			}
+			route.tour = Euler.hierholzerAlgorithm(a,
+					a.verts.get(components.get(0).root), ctx);
+		} finally {
+			ctx.release();
+		}
+		return route;
+	}
+
+	/**
+	 * Method to pair the odd vertices with a minimum weight perfect matching
+	 * over their shortest path distances
+	 *
+	 * @return edges of g on the paths between the pairs, once per use
+	 */
+	static List<Edge> matchExact(Graph g, int[] odd) {
+		int k = odd.length;
+		List<Edge> added = new ArrayList<>();
+		if (k == 0) {
+			return added;
+		}
+		ShortestPaths[] paths = new ShortestPaths[k];
+		for (int i = 0; i < k; i++) {
+			paths[i] = new ShortestPaths(g, new int[] { odd[i] });
+		}
+
+		// best[mask] is the cheapest matching of the odd vertices in mask,
+		// pairing the lowest one with partner[mask]
+		long[] best = new long[1 << k];
+		int[] partner = new int[1 << k];
+		for (int mask = 1; mask < 1 << k; mask++) {
+			best[mask] = Long.MAX_VALUE;
+			if (Integer.bitCount(mask) % 2 != 0) {
+				continue;
+			}
+			int i = Integer.numberOfTrailingZeros(mask);
+			for (int j = i + 1; j < k; j++) {
+				int rest = mask & ~(1 << i) & ~(1 << j);
+				if ((mask & (1 << j)) != 0 && best[rest] != Long.MAX_VALUE) {
+					long cost = best[rest] + paths[i].dist[odd[j]];
+					if (cost < best[mask]) {
+						best[mask] = cost;
+						partner[mask] = j;
+					}
+				}
+			}
+		}
+		for (int mask = (1 << k) - 1; mask != 0;) {
+			int i = Integer.numberOfTrailingZeros(mask);
+			int j = partner[mask];
+			paths[i].addPath(g, odd[j], added);
+			mask &= ~(1 << i) & ~(1 << j);
+		}
+		return added;
+	}
+
+	/**
+	 * Method to pair the odd vertices greedily, nearest pairs first
+	 *
+	 * @return edges of g on the paths between the pairs, once per use
+	 */
+	static List<Edge> matchGreedy(Graph g, int[] odd) {
+		List<Edge> added = new ArrayList<>();
+		boolean[] matched = new boolean[g.numNodes + 1];
+		int[] left = odd;
+		while (left.length > 0) {
+			ShortestPaths sp = new ShortestPaths(g, left);
+			// a candidate for every edge between the regions of two odd
+			// vertices: the path source(u) .. u - v .. source(v), ordered by
+			// its length in the heap
+			Heap candidates = new Heap(left.length);
+			for (Edge e : g.edges) {
+				int u = e.From.name, v = e.To.name;
+				int su = sp.source[u], sv = sp.source[v];
+				if (su != sv && su != 0 && sv != 0) {
+					candidates.push(sp.dist[u] + e.Weight + sp.dist[v], e.id);
+				}
+			}
+			int pairs = 0;
+			while (!candidates.isEmpty()) {
+				Edge e = g.edges.get(candidates.pop());
+				int su = sp.source[e.From.name], sv = sp.source[e.To.name];
+				if (matched[su] || matched[sv]) {
+					continue;
+				}
+				matched[su] = true;
+				matched[sv] = true;
+				sp.addPath(g, e.From.name, added);
+				added.add(e);
+				sp.addPath(g, e.To.name, added);
+				pairs++;
+			}
+			// the cheapest candidate always matches, so every round
+			// matches at least one pair
+			left = Arrays.stream(left).filter(v -> !matched[v]).toArray();
+			if (left.length > 0
+					&& 2 * pairs * MIN_ROUND_SHARE < left.length + 2 * pairs) {
+				pairAlongTree(g, left, added);
+				break;
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Method to pair the given odd vertices along a shortest path tree from
+	 * the first of them: the edge above a vertex is added when the subtree
+	 * below it holds an odd number of them. Every edge is added at most once
+	 * and every given vertex gets one more edge, every other vertex an even
+	 * number, so the degrees all become even in one pass.
+	 *
+	 * @param left
+	 *            : int[] - odd vertices to pair, an even number of them
+	 * @param added
+	 *            : List - receives the edges of g added
+	 */
+	static void pairAlongTree(Graph g, int[] left, List<Edge> added) {
+		ShortestPaths tree = new ShortestPaths(g, new int[] { left[0] });
+		boolean[] odd = new boolean[g.numNodes + 1];
+		for (int v : left) {
+			odd[v] = true;
+		}
+		// the children are settled after their parent, so walking the order
+		// backwards finishes a subtree before the edge above it
+		for (int i = tree.settled - 1; i > 0; i--) {
+			int v = tree.order[i];
+			if (odd[v]) {
+				Edge e = tree.parent[v];
+				added.add(e);
+				int p = e.otherEnd(g.verts.get(v)).name;
+				odd[p] = !odd[p];
+			}
+		}
+	}
+
+	/**
+	 * ShortestPaths - Dijkstra from a set of sources at once, every vertex
+	 * gets the distance to its nearest source, that source and the last
+	 * edge of the path to it
+	 *
+	 */
+	static class ShortestPaths {
+		final long[] dist;
+		final int[] source; // nearest source, 0 if unreachable
+		final Edge[] parent; // last edge of the path, null at a source
+		final int[] order; // vertices in the order they were settled
+		int settled; // number of vertices settled
+
+		ShortestPaths(Graph g, int[] sources) {
+			int n = g.numNodes;
+			dist = new long[n + 1];
+			source = new int[n + 1];
+			parent = new Edge[n + 1];
+			order = new int[n];
+			Arrays.fill(dist, Long.MAX_VALUE);
+			Heap heap = new Heap(sources.length);
+			for (int s : sources) {
+				dist[s] = 0;
+				source[s] = s;
+				heap.push(0, s);
+			}
+			boolean[] done = new boolean[n + 1];
+			while (!heap.isEmpty()) {
+				int u = heap.pop();
+				if (done[u]) {
+					continue; // stale entry, u was reached cheaper before
+				}
+				done[u] = true;
+				order[settled++] = u;
+				for (Edge e : g.verts.get(u).Adj) {
+					int v = e.otherEnd(g.verts.get(u)).name;
+					long d = dist[u] + e.Weight;
+					if (d < dist[v]) {
+						dist[v] = d;
+						source[v] = source[u];
+						parent[v] = e;
+						heap.push(d, v);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Method to add the edges of the path from v back to its source
+		 */
+		void addPath(Graph g, int v, List<Edge> added) {
+			while (parent[v] != null) {
+				Edge e = parent[v];
+				added.add(e);
+				v = e.otherEnd(g.verts.get(v)).name;
+			}
+		}
+	}
+
+	/**
+	 * Heap - binary min heap of (distance, vertex) in two primitive arrays.
+	 * A vertex is pushed again when its distance drops, the old entry is
+	 * skipped when it comes out.
+	 *
+	 */
+	static class Heap {
+		private long[] keys;
+		private int[] values;
+		private int size;
+
+		Heap(int capacity) {
+			keys = new long[Math.max(16, capacity)];
+			values = new int[keys.length];
+		}
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		void push(long key, int value) {
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, size * 2);
+				values = Arrays.copyOf(values, size * 2);
+			}
+			int i = size++;
+			while (i > 0) {
+				int p = (i - 1) >>> 1;
+				if (keys[p] <= key) {
+					break;
+				}
+				keys[i] = keys[p];
+				values[i] = values[p];
+				i = p;
+			}
+			keys[i] = key;
+			values[i] = value;
+		}
+
+		/**
+		 * @return value of the smallest key, which is removed
+		 */
+		int pop() {
+			int top = values[0];
+			long key = keys[--size];
+			int value = values[size];
+			int i = 0;
+			while (true) {
+				int c = 2 * i + 1;
+				if (c >= size) {
+					break;
+				}
+				if (c + 1 < size && keys[c + 1] < keys[c]) {
+					c++;
+				}
+				if (keys[c] >= key) {
+					break;
+				}
+				keys[i] = keys[c];
+				values[i] = values[c];
+				i = c;
+			}
+			keys[i] = key;
+			values[i] = value;
+			return top;
+		}
+	}
+}
@@ -0,0 +1,257 @@
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * StreamEulerTour - Finds the Euler Tour or Euler Path of a Graph with the
+ * stack based form of the Hierholzer algorithm, handing the edges to a sink
+ * in tour order instead of building a list, and streams the tours of Graph
+ * and CsrGraph to the standard output through a TourWriter
+ * @author rameshsuthan
+ *
+ */
+public class StreamEulerTour {
+	/**
+	 * Method to find Euler tour or Euler path in the given graph if it is
+	 * Eulerian Graph, handing the edges to the sink in tour order as soon as
+	 * their place in the tour is final. No DoublyLinkedList is built.
+	 * 
+	 * @param g
+	 *            - input graph
+	 * @param sink
+	 *            - receives the edges in the Euler Tour or Euler Path
+	 * @return true if the graph is Eulerian and the tour was emitted
+	 */
+	public static boolean findEulerTour(Graph g, Consumer<Edge> sink) {
+		EulerContext ctx = EulerContext.acquire();
+		try {
+			return findEulerTour(g, null, sink, ctx);
+		} finally {
+			ctx.release();
+		}
+	}
+
+	/**
+	 * Method to find Euler tour or Euler path in the given graph if it is
+	 * Eulerian Graph, starting at the given vertex, handing the edges to the
+	 * sink in tour order. The graph is not modified.
+	 * 
+	 * @param g
+	 *            - input graph
+	 * @param start
+	 *            - vertex the tour starts at, null for the default
+	 * @param sink
+	 *            - receives the edges in the Euler Tour or Euler Path
+	 * @param ctx
+	 *            - scratch state of the search
+	 * @return true if the graph is Eulerian and the tour was emitted
+	 */
+	public static boolean findEulerTour(Graph g, Vertex start,
+			Consumer<Edge> sink, EulerContext ctx) {
+		Vertex[] ends = new Vertex[2];
+		int eulerType;
+
+		if (!Euler.hasTour(g)) {
+			return false;
+		}
+
+		if (g.directed) {
+			return Euler.findDirectedEulerTour(g, start, sink, ctx);
+		}
+
+		ctx.reset(g);
+		if ((eulerType = Euler.findEnds(g, start, ends, ctx)) == -1) {
+			return false;
+		}
+
+		// The tour is emitted ending at the vertex the walk starts from, so a
+		// Euler path is walked from its other end.
+		int subCircuits = hierholzerAlgorithm(g, eulerType == 0 ? ends[0]
+				: ends[1], sink, ctx);
+		if (ctx.stats != null) {
+			ctx.stats.subCircuits += subCircuits;
+		}
+		Euler.lap(ctx, EulerStats.Phase.TOUR);
+		return true;
+	}
+
+	/**
+	 * Method to find the euler tour (or the euler path, if sVertex is one of
+	 * the two odd degree vertices) in the given graph with the stack based
+	 * form of the Hierholzer algorithm. An edge is handed to the sink when it
+	 * is popped from the stack, so the tour is emitted in reverse order of
+	 * the walk and ends at sVertex. The graph is not modified.
+	 * 
+	 * @param g
+	 *            - Input Graph(Must be a Euler Graph)
+	 * @param sVertex
+	 *            - vertex where the walk starts
+	 * @param sink
+	 *            - receives the edges in the tour
+	 * @return number of sub circuits walked
+	 */
+	public static int hierholzerAlgorithm(Graph g, Vertex sVertex,
+			Consumer<Edge> sink) {
+		EulerContext ctx = EulerContext.acquire();
+		try {
+			ctx.reset(g);
+			return hierholzerAlgorithm(g, sVertex, sink, ctx);
+		} finally {
+			ctx.release();
+		}
+	}
+
+	/**
+	 * Method to run the stack based walk with the cursors, the used bits and
+	 * the stacks of the given context. A sub circuit is the run of edges
+	 * pushed from the vertex the walk moves on from after backing up (the
+	 * first one from sVertex) until it is stuck back at that vertex.
+	 * 
+	 * @param g
+	 *            - Input Graph(Must be a Euler Graph)
+	 * @param sVertex
+	 *            - vertex where the walk starts
+	 * @param sink
+	 *            - receives the edges in the tour
+	 * @param ctx
+	 *            - scratch state, reset for g
+	 * @return number of sub circuits walked
+	 */
+	public static int hierholzerAlgorithm(Graph g, Vertex sVertex,
+			Consumer<Edge> sink, EulerContext ctx) {
+		// vertexStack[i] is reached from vertexStack[i-1] through edgeStack[i]
+		Vertex[] vertexStack = ctx.vertexStack;
+		Edge[] edgeStack = ctx.edgeStack;
+		int top = 0;
+		vertexStack[0] = sVertex;
+		boolean walking = false; // edges are being pushed
+		int start = 0; // depth the current sub circuit started at
+		int subCircuits = 0;
+		// bit v set once the walk has left v, only kept to report hubs
+		long[] left = EulerEvents.isHubEnabled() ? new long[(g.numNodes >>> 6)
+				+ 1] : null;
+
+		while (top >= 0) {
+			Vertex v = vertexStack[top];
+			Edge e = Euler.nextUnusedEdge(v, ctx);
+			if (e != null) {
+				if (!walking) {
+					walking = true;
+					start = top;
+				}
+				ctx.use(e);
+				if (left != null && (left[v.name >>> 6] & (1L << v.name)) == 0) {
+					left[v.name >>> 6] |= 1L << v.name;
+					Euler.checkHub(v, ctx);
+				}
+				top++;
+				vertexStack[top] = e.otherEnd(v);
+				edgeStack[top] = e;
+			} else {
+				if (walking) {
+					// stuck where the sub circuit started
+					walking = false;
+					subCircuits++;
+					EulerEvents.splice(top - start, v.name);
+				}
+				// no unused edge left at v, the edge that led here is final
+				if (top > 0) {
+					sink.accept(edgeStack[top]);
+				}
+				edgeStack[top] = null;
+				vertexStack[top] = null;
+				top--;
+			}
+		}
+		return subCircuits;
+	}
+
+	/**
+	 * Method to find the tour of the compact graph and stream it to the
+	 * standard output through a TourWriter, without holding the tour
+	 *
+	 * @param g
+	 *            - input graph
+	 * @param format
+	 *            - how the tour is printed
+	 * @param parallel
+	 *            - build the tour with ParallelEulerTour
+	 * @return true if the graph is Eulerian and the tour was printed
+	 * @throws IOException
+	 */
+	public static boolean streamTour(CsrGraph g, TourWriter.Format format,
+			boolean parallel) throws IOException {
+		return streamTour(g, format, parallel, null);
+	}
+
+	/**
+	 * Method to stream the tour of the compact graph to the standard output,
+	 * timing the phases in stats
+	 *
+	 * @param g
+	 *            - input graph
+	 * @param format
+	 *            - how the tour is printed
+	 * @param parallel
+	 *            - build the tour with ParallelEulerTour
+	 * @param stats
+	 *            - timings of the solve, null when not measured
+	 * @return true if the graph is Eulerian and the tour was printed
+	 * @throws IOException
+	 */
+	public static boolean streamTour(CsrGraph g, TourWriter.Format format,
+			boolean parallel, EulerStats stats) throws IOException {
+		TourWriter out = TourWriter.toStdout(format);
+		boolean found;
+		if (stats == null) {
+			found = parallel ? ParallelEulerTour.findEulerTour(g,
+					out.edgeSink(g)) : CsrEulerTour.findEulerTour(g,
+					out.edgeSink(g));
+		} else if (parallel) {
+			stats.graph(g);
+			found = ParallelEulerTour.findEulerTour(g, out.edgeSink(g), stats);
+			// the checks run inside ParallelEulerTour, they are part of the
+			// tour here
+			stats.lap(EulerStats.Phase.TOUR);
+		} else {
+			int sVertex = CsrEulerTour.walkStart(g, stats);
+			found = sVertex > 0;
+			if (found) {
+				stats.subCircuits += CsrEulerTour.hierholzerAlgorithm(g,
+						sVertex, out.edgeSink(g));
+				stats.lap(EulerStats.Phase.TOUR);
+			}
+		}
+		if (found) {
+			// the edges went out during the walk, only the flush is left
+			EulerEvents.Output event = new EulerEvents.Output();
+			event.begin();
+			out.finish();
+			Euler.commitOutput(event, g.numEdges, format);
+			if (stats != null) {
+				stats.lap(EulerStats.Phase.OUTPUT);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Method to find the tour of the graph and stream it to the standard
+	 * output through a TourWriter, without building a DoublyLinkedList
+	 *
+	 * @param g
+	 *            - input graph
+	 * @param format
+	 *            - how the tour is printed
+	 * @return true if the graph is Eulerian and the tour was printed
+	 * @throws IOException
+	 */
+	public static boolean streamTour(Graph g, TourWriter.Format format)
+			throws IOException {
+		TourWriter out = TourWriter.toStdout(format);
+		if (findEulerTour(g, out.edgeSink())) {
+			out.finish();
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,360 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * TourVerifier - Checks that a tour uses every edge of the graph exactly
+ * once and that consecutive edges meet, without touching the graph: the
+ * edges in use are kept in a bitset of edge ids, so a graph can be verified
+ * any number of times and while it is being solved again. The tour is cut
+ * into chunks that are checked in parallel on the common fork-join pool.
+ *
+ * The walk through a chunk depends on the vertex it enters at, which is
+ * only known once the chunks before it are walked. Every chunk is walked
+ * from both ends of its first edge, then the exits are chained in tour
+ * order, which takes a step per chunk. Coverage needs no pass over the
+ * adjacency lists: a tour of numEdges distinct valid ids uses every edge.
+ *
+ * A tour written to disk carries endpoints instead of ids, there every
+ * written edge takes the id of an edge with the same ends from an
+ * EdgeIndex, so a parallel edge written more times than the graph has it
+ * runs out of ids.
+ * @author rameshsuthan
+ *
+ */
+public class TourVerifier {
+	// edges in a chunk checked by one task
+	static final int CHUNK = 1 << 16;
+
+	/**
+	 * Method to verify a tour held as a DoublyLinkedList
+	 *
+	 * @param g
+	 *            : Graph - graph of the tour
+	 * @param tour
+	 *            : DoublyLinkedList<Edge> - edges of the tour
+	 * @param start
+	 *            : Vertex - vertex the tour starts at, null for either end
+	 *            of its first edge
+	 * @return true if the tour is a Euler tour or Euler path of g
+	 */
+	public static boolean verify(Graph g, DoublyLinkedList<Edge> tour,
+			Vertex start) {
+		int[] ids = new int[tour.size];
+		int size = 0;
+		for (DoublyLinkedList<Edge>.Entry<Edge> x = tour.head.next; x != null; x = x.next) {
+			if (size == ids.length) {
+				// the size of the list does not match its entries
+				return false;
+			}
+			ids[size++] = x.element.id;
+		}
+		return verify(g, ids, size, start);
+	}
+
+	/**
+	 * Method to verify a tour held as an IndexLinkedList
+	 *
+	 * @param g
+	 *            : Graph - graph of the tour
+	 * @param tour
+	 *            : IndexLinkedList - ids of the edges of the tour
+	 * @param start
+	 *            : Vertex - vertex the tour starts at, null for either end
+	 *            of its first edge
+	 * @return true if the tour is a Euler tour or Euler path of g
+	 */
+	public static boolean verify(Graph g, IndexLinkedList tour, Vertex start) {
+		int[] ids = new int[tour.size()];
+		int size = 0;
+		for (int x = tour.first(); x != IndexLinkedList.NIL; x = tour.next(x)) {
+			if (size == ids.length) {
+				return false;
+			}
+			ids[size++] = x;
+		}
+		return verify(g, ids, size, start);
+	}
+
+	/**
+	 * Method to verify a tour given as edge ids
+	 *
+	 * @param g
+	 *            : Graph - graph of the tour
+	 * @param tour
+	 *            : int[] - ids of the edges of the tour
+	 * @param length
+	 *            : int - number of edges in the tour
+	 * @param start
+	 *            : Vertex - vertex the tour starts at, null for either end
+	 *            of its first edge
+	 * @return true if the tour is a Euler tour or Euler path of g
+	 */
+	public static boolean verify(Graph g, int[] tour, int length, Vertex start) {
+		if (!isCover(tour, length, g.numEdges)) {
+			return false;
+		}
+		IntUnaryOperator from = i -> g.edges.get(tour[i]).From.name;
+		IntUnaryOperator to = i -> g.edges.get(tour[i]).To.name;
+		int s = start == null ? -1 : start.name;
+		return g.directed ? isDirectedWalk(from, to, length, s) : isWalk(
+				from, to, length, s);
+	}
+
+	/**
+	 * Method to verify a tour of the compact graph given as edge ids
+	 *
+	 * @param g
+	 *            : CsrGraph - graph of the tour
+	 * @param tour
+	 *            : int[] - ids of the edges of the tour
+	 * @param start
+	 *            : int - vertex the tour starts at, -1 for either end of its
+	 *            first edge
+	 * @return true if the tour is a Euler tour or Euler path of g
+	 */
+	public static boolean verify(CsrGraph g, int[] tour, int start) {
+		if (!isCover(tour, tour.length, g.numEdges)) {
+			return false;
+		}
+		return isWalk(i -> g.from.get(tour[i]), i -> g.to.get(tour[i]),
+				tour.length, start);
+	}
+
+	/**
+	 * Method to verify a tour written to a file by TourWriter against the
+	 * graph. The tour is read as integers, so the pair, plain and vertices
+	 * formats are all read the same way apart from how the integers are
+	 * grouped into edges.
+	 *
+	 * @param g
+	 *            : Graph - graph of the tour
+	 * @param file
+	 *            : File - the written tour
+	 * @param format
+	 *            : TourWriter.Format - format of the file
+	 * @return true if the file holds a Euler tour or Euler path of g
+	 * @throws IOException
+	 */
+	public static boolean verify(Graph g, File file, TourWriter.Format format)
+			throws IOException {
+		int[] ints = readInts(file);
+		int length;
+		int[] u, v;
+		if (format == TourWriter.Format.VERTICES) {
+			// the walk v0 v1 ... vm, edge i joins vi and vi+1
+			length = Math.max(0, ints.length - 1);
+			u = ints;
+			v = Arrays.copyOfRange(ints, Math.min(1, ints.length), ints.length);
+		} else {
+			if (ints.length % 2 != 0) {
+				return false;
+			}
+			length = ints.length / 2;
+			u = new int[length];
+			v = new int[length];
+			for (int i = 0; i < length; i++) {
+				u[i] = ints[2 * i];
+				v[i] = ints[2 * i + 1];
+			}
+		}
+		if (length != g.numEdges) {
+			return false;
+		}
+
+		// the ids taken are all different, numEdges of them cover the graph
+		EdgeIndex index = new EdgeIndex(g);
+		for (int i = 0; i < length; i++) {
+			if (index.take(u[i], v[i]) == EdgeIndex.NIL) {
+				return false;
+			}
+		}
+		if (format == TourWriter.Format.VERTICES) {
+			// consecutive edges share a vertex by construction
+			return true;
+		}
+		return g.directed ? isDirectedWalk(i -> u[i], i -> v[i], length, -1)
+				: isWalk(i -> u[i], i -> v[i], length, -1);
+	}
+
+	/**
+	 * Method to check that the tour holds every id of 0..numEdges-1 once
+	 */
+	static boolean isCover(int[] tour, int length, int numEdges) {
+		if (length != numEdges) {
+			return false;
+		}
+		AtomicLongArray seen = new AtomicLongArray((numEdges >>> 6) + 1);
+		AtomicBoolean ok = new AtomicBoolean(true);
+		IntStream.range(0, chunks(length)).parallel().forEach(c -> {
+			int hi = Math.min(length, (c + 1) * CHUNK);
+			for (int i = c * CHUNK; i < hi && ok.get(); i++) {
+				int e = tour[i];
+				if (e < 0 || e >= numEdges || !set(seen, e)) {
+					ok.set(false);
+				}
+			}
+		});
+		return ok.get();
+	}
+
+	/**
+	 * Method to set bit e
+	 *
+	 * @return false if it was already set
+	 */
+	private static boolean set(AtomicLongArray bits, int e) {
+		long bit = 1L << e;
+		long old;
+		do {
+			old = bits.get(e >>> 6);
+			if ((old & bit) != 0) {
+				return false;
+			}
+		} while (!bits.compareAndSet(e >>> 6, old, old | bit));
+		return true;
+	}
+
+	private static int chunks(int length) {
+		return (length + CHUNK - 1) / CHUNK;
+	}
+
+	/**
+	 * Method to check that the undirected edges, the i-th joining
+	 * from(i) and to(i), form a walk starting at start
+	 *
+	 * @param from
+	 *            : IntUnaryOperator - one end of the i-th edge
+	 * @param to
+	 *            : IntUnaryOperator - other end of the i-th edge
+	 * @param length
+	 *            : int - number of edges
+	 * @param start
+	 *            : int - first vertex of the walk, -1 for either end of the
+	 *            first edge
+	 * @return true if consecutive edges meet
+	 */
+	static boolean isWalk(IntUnaryOperator from, IntUnaryOperator to,
+			int length, int start) {
+		if (length == 0) {
+			return true;
+		}
+		int chunks = chunks(length);
+		// exit vertex of every chunk entered at either end of its first
+		// edge, -1 if the walk breaks inside the chunk
+		int[] exitFrom = new int[chunks];
+		int[] exitTo = new int[chunks];
+		IntStream.range(0, chunks).parallel().forEach(c -> {
+			int lo = c * CHUNK;
+			int hi = Math.min(length, lo + CHUNK);
+			exitFrom[c] = walk(from, to, lo, hi, from.applyAsInt(lo));
+			exitTo[c] = walk(from, to, lo, hi, to.applyAsInt(lo));
+		});
+
+		// chain the chunks, there are at most two vertices the walk can be
+		// at, as long as it is not known which end of the first edge it
+		// started from
+		int a = start != -1 ? start : from.applyAsInt(0);
+		int b = start != -1 ? -1 : to.applyAsInt(0);
+		for (int c = 0; c < chunks; c++) {
+			int u = from.applyAsInt(c * CHUNK);
+			int v = to.applyAsInt(c * CHUNK);
+			int exitA = a == -1 ? -1 : a == u ? exitFrom[c]
+					: a == v ? exitTo[c] : -1;
+			int exitB = b == -1 ? -1 : b == u ? exitFrom[c]
+					: b == v ? exitTo[c] : -1;
+			if (exitA == -1 && exitB == -1) {
+				return false;
+			}
+			a = exitA;
+			b = exitB == exitA ? -1 : exitB;
+		}
+		return true;
+	}
+
+	/**
+	 * Method to walk the edges lo..hi-1 from the vertex at
+	 *
+	 * @return vertex the walk ends at, -1 if an edge does not meet it
+	 */
+	private static int walk(IntUnaryOperator from, IntUnaryOperator to,
+			int lo, int hi, int at) {
+		for (int i = lo; i < hi; i++) {
+			int u = from.applyAsInt(i);
+			if (u == at) {
+				at = to.applyAsInt(i);
+			} else if (to.applyAsInt(i) == at) {
+				at = u;
+			} else {
+				return -1;
+			}
+		}
+		return at;
+	}
+
+	/**
+	 * Method to check that the arcs, the i-th from from(i) to to(i), form a
+	 * walk starting at start
+	 *
+	 * @return true if every arc starts where the one before it ends
+	 */
+	static boolean isDirectedWalk(IntUnaryOperator from, IntUnaryOperator to,
+			int length, int start) {
+		if (length > 0 && start != -1 && from.applyAsInt(0) != start) {
+			return false;
+		}
+		return IntStream.range(1, length).parallel()
+				.allMatch(i -> from.applyAsInt(i) == to.applyAsInt(i - 1));
+	}
+
+	/**
+	 * Method to read all the integers of the file, anything that is not a
+	 * digit separates them
+	 */
+	static int[] readInts(File file) throws IOException {
+		int[] ints = new int[1024];
+		int size = 0;
+		try (FileChannel fc = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+			long value = 0;
+			boolean inNumber = false;
+			while (fc.read(buffer) > 0) {
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					int c = buffer.get();
+					if (c >= '0' && c <= '9') {
+						value = value * 10 + (c - '0');
+						if (value > Integer.MAX_VALUE) {
+							throw new IOException("Number too large in "
+									+ file);
+						}
+						inNumber = true;
+					} else if (inNumber) {
+						if (size == ints.length) {
+							ints = Arrays.copyOf(ints, size * 2);
+						}
+						ints[size++] = (int) value;
+						value = 0;
+						inNumber = false;
+					}
+				}
+				buffer.clear();
+			}
+			if (inNumber) {
+				if (size == ints.length) {
+					ints = Arrays.copyOf(ints, size + 1);
+				}
+				ints[size++] = (int) value;
+			}
+		}
+		return Arrays.copyOf(ints, size);
+	}
+}
@@ -0,0 +1,324 @@
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * TourWriter - Writes an Euler tour to a channel. The integers are formatted
+ * straight into a large byte buffer, which is written out only when it is
+ * full, so no String is built per edge and the stream is not flushed per
+ * line.
+ * @author rameshsuthan
+ *
+ */
+public class TourWriter implements Closeable {
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Format - how the tour is written
+	 *
+	 */
+	public enum Format {
+		PAIR, // one "(u,v)" line per edge followed by an empty line, the
+				// same as DoublyLinkedList.printList
+		PLAIN, // one "u v" line per edge
+		VERTICES // one line per vertex in the order the tour visits them
+	}
+
+	private final WritableByteChannel channel;
+	private final Format format;
+	private final byte[] buf;
+	private final ByteBuffer buffer;
+	private int pos; // next free byte in buf
+	private final byte[] digits = new byte[11]; // scratch for one integer
+
+	// state of the VERTICES format
+	private int current; // last vertex written, 0 before the first one
+	private int pendingU, pendingV; // first edge of the tour
+	private int pending; // number of copies of it not written yet
+
+	/**
+	 * Constructor for TourWriter
+	 *
+	 * @param channel
+	 *            : WritableByteChannel - output
+	 * @param format
+	 *            : Format - how the tour is written
+	 */
+	public TourWriter(WritableByteChannel channel, Format format) {
+		this(channel, format, BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructor for TourWriter with a buffer of the given size, smaller
+	 * buffers suit the many small tours of a batch
+	 *
+	 * @param channel
+	 *            : WritableByteChannel - output
+	 * @param format
+	 *            : Format - how the tour is written
+	 * @param bufferSize
+	 *            : int - size of the buffer in bytes, at least 16
+	 */
+	public TourWriter(WritableByteChannel channel, Format format,
+			int bufferSize) {
+		this.channel = channel;
+		this.format = format;
+		buf = new byte[Math.max(bufferSize, 16)];
+		buffer = ByteBuffer.wrap(buf);
+	}
+
+	/**
+	 * Method to create a writer on the standard output
+	 *
+	 * @param format
+	 *            : Format - how the tour is written
+	 * @return TourWriter
+	 */
+	public static TourWriter toStdout(Format format) {
+		return new TourWriter(
+				new FileOutputStream(FileDescriptor.out).getChannel(), format);
+	}
+
+	/**
+	 * Method to write a tour of Edge objects
+	 *
+	 * @param tour
+	 *            : DoublyLinkedList<Edge> - edges of the tour in order
+	 * @throws IOException
+	 */
+	public void write(DoublyLinkedList<Edge> tour) throws IOException {
+		DoublyLinkedList<Edge>.Entry<Edge> node = tour.head.next;
+		while (node != null) {
+			edge(node.element.From.name, node.element.To.name);
+			node = node.next;
+		}
+		finish();
+	}
+
+	/**
+	 * Method to write a tour of edge ids of the graph
+	 *
+	 * @param g
+	 *            : Graph - graph of the tour
+	 * @param tour
+	 *            : IndexLinkedList - ids of the edges of the tour in order
+	 * @throws IOException
+	 */
+	public void write(Graph g, IndexLinkedList tour) throws IOException {
+		for (int x = tour.first(); x != IndexLinkedList.NIL; x = tour.next(x)) {
+			Edge e = g.edges.get(x);
+			edge(e.From.name, e.To.name);
+		}
+		finish();
+	}
+
+	/**
+	 * Method to write a tour of a compact graph
+	 *
+	 * @param g
+	 *            : CsrGraph - graph of the tour
+	 * @param tour
+	 *            : int[] - ids of the edges of the tour in order
+	 * @throws IOException
+	 */
+	public void write(CsrGraph g, int[] tour) throws IOException {
+		for (int e : tour) {
+			edge(g.from.get(e), g.to.get(e));
+		}
+		finish();
+	}
+
+	/**
+	 * Method to get a sink that writes the edges of a tour as they are
+	 * handed to it. finish() must be called after the last edge.
+	 *
+	 * @return Consumer of the edges of the tour in order
+	 */
+	public Consumer<Edge> edgeSink() {
+		return e -> {
+			try {
+				edge(e.From.name, e.To.name);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		};
+	}
+
+	/**
+	 * Method to get a sink that writes the edges of a tour of a compact graph
+	 * as they are handed to it. finish() must be called after the last edge.
+	 *
+	 * @param g
+	 *            : CsrGraph - graph of the tour
+	 * @return IntConsumer of the ids of the edges of the tour in order
+	 */
+	public IntConsumer edgeSink(CsrGraph g) {
+		return e -> {
+			try {
+				edge(g.from.get(e), g.to.get(e));
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		};
+	}
+
+	/**
+	 * Method to write the next edge (u,v) of the tour
+	 */
+	private void edge(int u, int v) throws IOException {
+		if (format != Format.VERTICES) {
+			writeEdge(u, v);
+			return;
+		}
+		if (current > 0) {
+			current = u == current ? v : u;
+			writeVertex(current);
+			return;
+		}
+		// The first vertex is not known yet. The tour walks back and forth
+		// between the ends of the first edge as long as it repeats that
+		// edge, and the first edge leaving it tells where the walk is.
+		if (pending == 0) {
+			pendingU = u;
+			pendingV = v;
+			pending = 1;
+			if (u != v) {
+				return;
+			}
+		} else if ((u == pendingU && v == pendingV)
+				|| (u == pendingV && v == pendingU)) {
+			pending++;
+			return;
+		}
+		int at = u == pendingU || u == pendingV ? u : v;
+		int other = at == pendingU ? pendingV : pendingU;
+		writePending(pending % 2 == 0 ? at : other);
+		if (pendingU != pendingV) {
+			current = u == current ? v : u;
+			writeVertex(current);
+		}
+	}
+
+	/**
+	 * Method to write the vertices of the pending edges walked from start
+	 */
+	private void writePending(int start) throws IOException {
+		int other = start == pendingU ? pendingV : pendingU;
+		current = start;
+		writeVertex(current);
+		for (int i = 0; i < pending; i++) {
+			current = current == start ? other : start;
+			writeVertex(current);
+		}
+		pending = 0;
+	}
+
+	/**
+	 * Method to finish the tour and flush the buffer. The pair format ends
+	 * with an empty line.
+	 *
+	 * @throws IOException
+	 */
+	public void finish() throws IOException {
+		if (pending > 0) {
+			// the whole tour repeats one edge, either end can start it
+			writePending(pendingU);
+		}
+		current = 0;
+		if (format == Format.PAIR) {
+			put('\n');
+		}
+		flush();
+	}
+
+	/**
+	 * Method to write a line of text, such as a status message
+	 *
+	 * @param line
+	 *            : String - text without the line end
+	 * @throws IOException
+	 */
+	public void writeLine(String line) throws IOException {
+		for (byte b : line.getBytes(StandardCharsets.UTF_8)) {
+			if (pos == buf.length) {
+				flush();
+			}
+			buf[pos++] = b;
+		}
+		put('\n');
+	}
+
+	private void writeEdge(int u, int v) throws IOException {
+		if (format == Format.PAIR) {
+			put('(');
+			putInt(u);
+			put(',');
+			putInt(v);
+			put(')');
+		} else {
+			putInt(u);
+			put(' ');
+			putInt(v);
+		}
+		put('\n');
+	}
+
+	private void writeVertex(int u) throws IOException {
+		putInt(u);
+		put('\n');
+	}
+
+	private void put(char c) throws IOException {
+		if (pos == buf.length) {
+			flush();
+		}
+		buf[pos++] = (byte) c;
+	}
+
+	private void putInt(int x) throws IOException {
+		if (pos > buf.length - 11) {
+			flush();
+		}
+		long value = x;
+		if (value < 0) {
+			buf[pos++] = '-';
+			value = -value;
+		}
+		int n = 0;
+		do {
+			digits[n++] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		while (n > 0) {
+			buf[pos++] = digits[--n];
+		}
+	}
+
+	/**
+	 * Method to write out the buffered bytes
+	 *
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		buffer.clear().limit(pos);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		pos = 0;
+	}
+
+	/**
+	 * Method to flush the buffer and close the channel
+	 */
+	public void close() throws IOException {
+		flush();
+		channel.close();
+	}
+}
@@ -3,15 +3,8 @@ import java.util.*;
 
 public class Vertex {
 	public int name; // name of the vertex
-	public boolean seen; // flag to check if the vertex has already been visited
-	public Vertex parent; // parent of the vertex
-	public int distance; // distance to the vertex from the source vertex
 	public List<Edge> Adj, revAdj; // adjacency list; use
 												// LinkedList or ArrayList
-	// index of First edge containing this vertex in the tour.
-	// to achieve O(1) Run Time for Merging the tours
-	public DoublyLinkedList<Edge>.Entry<Edge> index;
-	public List<Edge>  unUsedEdges; // storing the unused edges during euler tour
 
 	/**
 	 * Constructor for the vertex
@@ -21,11 +14,8 @@ public class Vertex {
 	 */
 	Vertex(int n) {
 		name = n;
-		seen = false;
-		parent = null;
 		Adj = new ArrayList<Edge>();
 		revAdj = new ArrayList<Edge>(); /* only for directed graphs */
-		unUsedEdges = new ArrayList<Edge>();
 	}
 
 	/**
@@ -46,4 +36,9 @@ public class Vertex {
 		}
 		return false;
 	}
+
+	@Override
+	public int hashCode() {
+		return name;
+	}
 }
@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * EdgeIndexTest - EdgeIndex against a scan of the edge list, on random
+ * multigraphs with many parallel edges and self loops and on a graph large
+ * enough for long probe chains
+ * @author rameshsuthan
+ *
+ */
+class EdgeIndexTest {
+	@TempDir
+	File dir;
+
+	@Test
+	void findsEveryParallelEdge() throws IOException {
+		Random rnd = new Random(0x494e4458L);
+		for (int round = 0; round < 200; round++) {
+			int n = 1 + rnd.nextInt(12);
+			RandomGraphs r = RandomGraphs.random(rnd, n, rnd.nextInt(6 * n));
+			File file = r.write(dir, "g.txt");
+			boolean directed = round % 2 == 1;
+			String message = "round " + round;
+			Graph g = Graph.readGraph(EdgeListReader.open(file), directed);
+			check(r, new EdgeIndex(g), directed, message);
+			if (!directed) {
+				check(r, new EdgeIndex(CsrGraph.readGraph(EdgeListReader
+						.open(file))), false, message);
+			}
+		}
+	}
+
+	@Test
+	void findsEdgesOfALargeGraph() throws IOException {
+		Random rnd = new Random(0x4c415247L);
+		RandomGraphs r = RandomGraphs.random(rnd, 1 << 16, 1 << 18);
+		File file = r.write(dir, "large.txt");
+		CsrGraph cg = CsrGraph.readGraph(EdgeListReader.open(file));
+		EdgeIndex index = new EdgeIndex(cg);
+		for (int round = 0; round < 2000; round++) {
+			int[] e = r.edges.get(rnd.nextInt(r.edges.size()));
+			int u = rnd.nextBoolean() ? e[0] : 1 + rnd.nextInt(r.n);
+			int v = rnd.nextBoolean() ? e[1] : 1 + rnd.nextInt(r.n);
+			assertEquals(scan(r, u, v, false), ids(index, u, v), "(" + u + ","
+					+ v + ")");
+		}
+	}
+
+	/**
+	 * Method to check every pair of vertices of the small graph: first and
+	 * next list the edges of the pair in id order, count counts them and take
+	 * hands each of them out once
+	 */
+	private static void check(RandomGraphs r, EdgeIndex index,
+			boolean directed, String message) {
+		for (int u = 1; u <= r.n; u++) {
+			for (int v = 1; v <= r.n; v++) {
+				List<Integer> expected = scan(r, u, v, directed);
+				String pair = message + " (" + u + "," + v + ")";
+				assertEquals(expected, ids(index, u, v), pair);
+				assertEquals(expected.size(), index.count(u, v), pair);
+			}
+		}
+		for (int u = 1; u <= r.n; u++) {
+			for (int v = directed ? 1 : u; v <= r.n; v++) {
+				String pair = message + " (" + u + "," + v + ")";
+				for (int e : scan(r, u, v, directed)) {
+					assertEquals(e, index.take(u, v), pair);
+				}
+				assertEquals(EdgeIndex.NIL, index.take(u, v), pair);
+				if (!directed) {
+					// (v,u) is the same pair
+					assertEquals(EdgeIndex.NIL, index.take(v, u), pair);
+				}
+			}
+		}
+	}
+
+	private static List<Integer> ids(EdgeIndex index, int u, int v) {
+		List<Integer> ids = new ArrayList<>();
+		for (int e = index.first(u, v); e != EdgeIndex.NIL; e = index.next(e)) {
+			ids.add(e);
+		}
+		return ids;
+	}
+
+	/**
+	 * Method to list the ids of the edges between u and v in id order
+	 */
+	private static List<Integer> scan(RandomGraphs r, int u, int v,
+			boolean directed) {
+		List<Integer> ids = new ArrayList<>();
+		for (int e = 0; e < r.edges.size(); e++) {
+			int[] x = r.edges.get(e);
+			if (x[0] == u && x[1] == v || !directed && x[0] == v && x[1] == u) {
+				ids.add(e);
+			}
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,287 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * EulerEnginesTest - Every engine on the same seeded random graphs. The
+ * engines must agree on whether the graph has a tour, every tour must be a
+ * trail over all the edges from the reference start vertex, and the engines
+ * that walk the same layout must give the same tour.
+ * @author rameshsuthan
+ *
+ */
+class EulerEnginesTest {
+	private static final int ROUNDS = 200;
+
+	@TempDir
+	File dir;
+
+	@Test
+	void undirectedEnginesAgree() throws IOException {
+		Random rnd = new Random(0x45554c52L);
+		for (int round = 0; round < ROUNDS; round++) {
+			int n = 1 + rnd.nextInt(24);
+			RandomGraphs r;
+			switch (round % 4) {
+			case 0:
+				r = RandomGraphs.circuit(rnd, n, rnd.nextInt(4));
+				break;
+			case 1:
+				r = RandomGraphs.path(rnd, n + 1, rnd.nextInt(4));
+				break;
+			case 2:
+				r = RandomGraphs.random(rnd, n, rnd.nextInt(3 * n));
+				break;
+			default:
+				// a circuit and an isolated vertex, connected it is not
+				r = RandomGraphs.circuit(rnd, n, rnd.nextInt(4));
+				r = withIsolatedVertex(r);
+				break;
+			}
+			checkUndirected(r, r.write(dir, "g" + round + ".txt"),
+					round % 4 == 0, "round " + round);
+		}
+	}
+
+	private static RandomGraphs withIsolatedVertex(RandomGraphs r) {
+		RandomGraphs g = new RandomGraphs(r.n + 1);
+		g.edges.addAll(r.edges);
+		return g;
+	}
+
+	private void checkUndirected(RandomGraphs r, File file, boolean circuit,
+			String round) throws IOException {
+		int start = r.start();
+		Graph g = Graph.readGraph(EdgeListReader.open(file), false);
+		CsrGraph cg = CsrGraph.readGraph(EdgeListReader.open(file));
+
+		int[] list = ids(Euler.findEulerTour(g));
+		int[] indexed = ids(IndexedEulerTour.findEulerTour(g));
+		List<Edge> streamed = new ArrayList<>();
+		boolean found = StreamEulerTour.findEulerTour(g, streamed::add);
+		int[] csr = CsrEulerTour.findEulerTour(cg);
+		int[] offHeap = CsrEulerTour.findEulerTour(CsrGraph
+				.readGraphOffHeap(EdgeListReader.open(file)));
+		int[] chunked = CsrEulerTour.findEulerTour(CsrGraph
+				.readGraph(ChunkedEdgeListReader.read(file, 3)));
+		File bin = new File(dir, "g.bin");
+		BinaryGraphFile.write(cg, bin);
+		int[] mapped = CsrEulerTour.findEulerTour(BinaryGraphFile.map(bin));
+		int[] parallel = ParallelEulerTour.findEulerTour(cg);
+
+		if (start == 0) {
+			assertNull(list, round);
+			assertNull(indexed, round);
+			assertTrue(!found && streamed.isEmpty(), round);
+			assertNull(csr, round);
+			assertNull(offHeap, round);
+			assertNull(chunked, round);
+			assertNull(mapped, round);
+			assertNull(parallel, round);
+			return;
+		}
+
+		assertTrue(r.isTrail(list, list.length, start, false), round);
+		assertEquals(r.edges.size(), list.length, round);
+		assertEquals(r.edges.size(), indexed.length, round);
+		assertTrue(r.isTrail(indexed, indexed.length, start, false), round);
+		assertTrue(found, round);
+		int[] stack = ids(streamed);
+		assertEquals(r.edges.size(), stack.length, round);
+		assertTrue(r.isTrail(stack, stack.length, start, false), round);
+
+		assertEquals(r.edges.size(), csr.length, round);
+		assertTrue(r.isTrail(csr, csr.length, start, false), round);
+		if (circuit) {
+			// the engines only differ in how they turn a Euler path into a
+			// circuit: the two linked lists splice the same circuit, and so
+			// do the stack walks over Graph and over CsrGraph
+			assertArrayEquals(list, indexed, round);
+			assertArrayEquals(csr, stack, round);
+		}
+		assertArrayEquals(csr, offHeap, round);
+		assertArrayEquals(csr, chunked, round);
+		assertArrayEquals(csr, mapped, round);
+
+		assertEquals(r.edges.size(), parallel.length, round);
+		assertTrue(r.isTrail(parallel, parallel.length, start, false), round);
+	}
+
+	@Test
+	void directedEnginesAgree() throws IOException {
+		Random rnd = new Random(0x44495247L);
+		for (int round = 0; round < ROUNDS; round++) {
+			int n = 1 + rnd.nextInt(24);
+			RandomGraphs r;
+			int start = -1; // any vertex
+			if (round % 3 == 0) {
+				r = RandomGraphs.circuit(rnd, n, rnd.nextInt(4));
+				// the circuit starts at the first vertex with arcs
+				start = 1;
+			} else if (round % 3 == 1) {
+				r = RandomGraphs.circuit(rnd, n + 1, rnd.nextInt(4));
+				int u = 1 + rnd.nextInt(n + 1);
+				int v = 1 + (u + rnd.nextInt(n)) % (n + 1);
+				// the arc u->v leaves u with one more arc out than in
+				r.add(rnd, u, v);
+				start = u;
+			} else {
+				r = RandomGraphs.random(rnd, n, rnd.nextInt(3 * n));
+			}
+			File file = r.write(dir, "d" + round + ".txt");
+			String message = "round " + round;
+
+			Graph g = Graph.readGraph(EdgeListReader.open(file), true);
+			int[] list = ids(Euler.findEulerTour(g));
+			int[] indexed = ids(IndexedEulerTour.findEulerTour(g));
+			List<Edge> streamed = new ArrayList<>();
+			boolean found = StreamEulerTour.findEulerTour(g, streamed::add);
+
+			if (start > 0) {
+				assertNotNull(list, message);
+			}
+			if (list == null) {
+				assertNull(indexed, message);
+				assertTrue(!found && streamed.isEmpty(), message);
+				continue;
+			}
+			assertEquals(r.edges.size(), list.length, message);
+			assertTrue(r.isTrail(list, list.length, start, true), message);
+			assertArrayEquals(list, indexed, message);
+			assertTrue(found, message);
+			assertArrayEquals(list, ids(streamed), message);
+		}
+	}
+
+	@Test
+	void componentsAreToured() throws IOException {
+		Random rnd = new Random(0x434f4d50L);
+		for (int round = 0; round < ROUNDS; round++) {
+			RandomGraphs r = RandomGraphs.components(rnd, 1 + rnd.nextInt(6),
+					2 + rnd.nextInt(10));
+			File file = r.write(dir, "c" + round + ".txt");
+			String message = "round " + round;
+			Graph g = Graph.readGraph(EdgeListReader.open(file), false);
+
+			List<ComponentTours.Component> one = ComponentTours.solve(g, 1);
+			List<ComponentTours.Component> many = ComponentTours.solve(g, 4);
+			assertEquals(one.size(), many.size(), message);
+
+			// the reference labels: the smallest vertex of every component
+			int[] parent = new int[r.n + 1];
+			int[] degree = new int[r.n + 1];
+			for (int v = 0; v <= r.n; v++) {
+				parent[v] = v;
+			}
+			for (int[] e : r.edges) {
+				degree[e[0]]++;
+				degree[e[1]]++;
+				int a = RandomGraphs.find(parent, e[0]);
+				int b = RandomGraphs.find(parent, e[1]);
+				parent[Math.max(a, b)] = Math.min(a, b);
+			}
+			int[] edges = new int[r.n + 1];
+			int[] odd = new int[r.n + 1];
+			for (int[] e : r.edges) {
+				edges[RandomGraphs.find(parent, e[0])]++;
+			}
+			for (int v = 1; v <= r.n; v++) {
+				if (degree[v] % 2 != 0) {
+					odd[RandomGraphs.find(parent, v)]++;
+				}
+			}
+
+			int k = 0;
+			int toured = 0;
+			for (int root = 1; root <= r.n; root++) {
+				if (edges[root] == 0 || RandomGraphs.find(parent, root) != root) {
+					continue;
+				}
+				ComponentTours.Component c = one.get(k);
+				assertEquals(root, c.root, message);
+				assertEquals(edges[root], c.numEdges, message);
+				assertEquals(odd[root], c.oddVertices, message);
+				assertArrayEquals(c.tour, many.get(k).tour, message);
+				if (odd[root] == 0 || odd[root] == 2) {
+					assertNotNull(c.tour, message);
+					assertEquals(c.numEdges, c.tour.length, message);
+					// a trail from a vertex of the component stays in it
+					assertTrue(r.isTrail(c.tour, c.tour.length, -1, false),
+							message);
+					assertEquals(root, RandomGraphs.find(parent,
+							r.edges.get(c.tour[0])[0]), message);
+					toured += c.tour.length;
+				} else {
+					assertNull(c.tour, message);
+				}
+				k++;
+			}
+			assertEquals(k, one.size(), message);
+			int expected = 0;
+			for (int root = 1; root <= r.n; root++) {
+				if (odd[root] == 0 || odd[root] == 2) {
+					expected += edges[root];
+				}
+			}
+			assertEquals(expected, toured, message);
+		}
+	}
+
+	@Test
+	void convertWritesTheSameFile() throws IOException {
+		Random rnd = new Random(0x42494eL);
+		for (int round = 0; round < 50; round++) {
+			RandomGraphs r = RandomGraphs.random(rnd, 1 + rnd.nextInt(40),
+					rnd.nextInt(200));
+			File file = r.write(dir, "b" + round + ".txt");
+			File written = new File(dir, "written.bin");
+			File converted = new File(dir, "converted.bin");
+			BinaryGraphFile.write(CsrGraph.readGraph(EdgeListReader.open(file)),
+					written);
+			// small runs, so the merge has several of them
+			BinaryGraphFile.convert(file, converted, dir, 1 + rnd.nextInt(16));
+			assertArrayEquals(Files.readAllBytes(written.toPath()),
+					Files.readAllBytes(converted.toPath()), "round " + round);
+		}
+	}
+
+	static int[] ids(DoublyLinkedList<Edge> tour) {
+		if (tour == null) {
+			return null;
+		}
+		int[] ids = new int[tour.size];
+		int i = 0;
+		for (DoublyLinkedList<Edge>.Entry<Edge> x = tour.head.next; x != null; x = x.next) {
+			ids[i++] = x.element.id;
+		}
+		return ids;
+	}
+
+	static int[] ids(IndexLinkedList tour) {
+		if (tour == null) {
+			return null;
+		}
+		int[] ids = new int[tour.size()];
+		int i = 0;
+		for (int e = tour.first(); e != IndexLinkedList.NIL; e = tour.next(e)) {
+			ids[i++] = e;
+		}
+		return ids;
+	}
+
+	static int[] ids(List<Edge> tour) {
+		return tour.stream().mapToInt(e -> e.id).toArray();
+	}
+}
@@ -0,0 +1,305 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * RandomGraphs - Seeded random graphs for the tests, kept as edge lists and
+ * written in the "n m" / "u v w" text format every reader takes. Small
+ * vertex counts make parallel edges and self loops common.
+ * @author rameshsuthan
+ *
+ */
+class RandomGraphs {
+	final int n; // number of vertices
+	final List<int[]> edges = new ArrayList<>(); // {u, v, w} per edge
+
+	RandomGraphs(int n) {
+		this.n = n;
+	}
+
+	/**
+	 * Method to add an edge with a random weight
+	 */
+	void add(Random rnd, int u, int v) {
+		edges.add(new int[] { u, v, 1 + rnd.nextInt(9) });
+	}
+
+	/**
+	 * Method to add a closed walk of the given length from u. Every vertex
+	 * of a closed walk keeps an even degree, or in a directed graph equal in
+	 * and out degrees.
+	 */
+	void closedWalk(Random rnd, int u, int length, int[] vertices) {
+		int at = u;
+		for (int i = 1; i < length; i++) {
+			// a self loop now and then
+			int next = rnd.nextInt(8) == 0 ? at : vertices[rnd
+					.nextInt(vertices.length)];
+			add(rnd, at, next);
+			at = next;
+		}
+		add(rnd, at, u);
+	}
+
+	/**
+	 * Method to create a connected Eulerian graph: a cycle through all the
+	 * vertices in random order and random closed walks on top of it
+	 *
+	 * @param rnd
+	 *            : Random - source of the graph
+	 * @param n
+	 *            : int - number of vertices
+	 * @param walks
+	 *            : int - number of extra closed walks
+	 * @return RandomGraphs
+	 */
+	static RandomGraphs circuit(Random rnd, int n, int walks) {
+		RandomGraphs g = new RandomGraphs(n);
+		int[] vertices = shuffled(rnd, 1, n);
+		g.cycle(rnd, vertices);
+		for (int i = 0; i < walks; i++) {
+			g.closedWalk(rnd, vertices[rnd.nextInt(n)], 1 + rnd.nextInt(2 * n),
+					vertices);
+		}
+		return g;
+	}
+
+	/**
+	 * Method to create a connected undirected graph with a Euler path: a
+	 * circuit and one more edge between two distinct vertices
+	 *
+	 * @param rnd
+	 *            : Random - source of the graph
+	 * @param n
+	 *            : int - number of vertices, at least 2
+	 * @param walks
+	 *            : int - number of extra closed walks
+	 * @return RandomGraphs
+	 */
+	static RandomGraphs path(Random rnd, int n, int walks) {
+		RandomGraphs g = circuit(rnd, n, walks);
+		int u = 1 + rnd.nextInt(n);
+		int v = 1 + (u + rnd.nextInt(n - 1)) % n;
+		g.add(rnd, u, v);
+		return g;
+	}
+
+	/**
+	 * Method to create a graph with m random edges, which is seldom Eulerian
+	 *
+	 * @param rnd
+	 *            : Random - source of the graph
+	 * @param n
+	 *            : int - number of vertices
+	 * @param m
+	 *            : int - number of edges
+	 * @return RandomGraphs
+	 */
+	static RandomGraphs random(Random rnd, int n, int m) {
+		RandomGraphs g = new RandomGraphs(n);
+		for (int i = 0; i < m; i++) {
+			g.add(rnd, 1 + rnd.nextInt(n), 1 + rnd.nextInt(n));
+		}
+		return g;
+	}
+
+	/**
+	 * Method to create an undirected graph of several connected components
+	 * on disjoint random sets of vertices. A component is a circuit with up
+	 * to two more edges, so it may have a Euler tour, a Euler path or
+	 * neither, and some vertices are left without edges.
+	 *
+	 * @param rnd
+	 *            : Random - source of the graph
+	 * @param parts
+	 *            : int - number of components
+	 * @param size
+	 *            : int - largest number of vertices of a component
+	 * @return RandomGraphs
+	 */
+	static RandomGraphs components(Random rnd, int parts, int size) {
+		int[] sizes = new int[parts];
+		int n = 0;
+		for (int i = 0; i < parts; i++) {
+			sizes[i] = 2 + rnd.nextInt(size - 1);
+			n += sizes[i];
+		}
+		int isolated = rnd.nextInt(4);
+		RandomGraphs g = new RandomGraphs(n + isolated);
+		int[] vertices = shuffled(rnd, 1, n + isolated);
+		int at = 0;
+		for (int i = 0; i < parts; i++) {
+			int[] part = new int[sizes[i]];
+			System.arraycopy(vertices, at, part, 0, part.length);
+			at += part.length;
+			g.cycle(rnd, part);
+			for (int w = rnd.nextInt(3); w > 0; w--) {
+				g.closedWalk(rnd, part[rnd.nextInt(part.length)],
+						1 + rnd.nextInt(2 * part.length), part);
+			}
+			for (int extra = rnd.nextInt(3); extra > 0; extra--) {
+				int u = rnd.nextInt(part.length);
+				int v = (u + 1 + rnd.nextInt(part.length - 1)) % part.length;
+				g.add(rnd, part[u], part[v]);
+			}
+		}
+		return g;
+	}
+
+	/**
+	 * Method to add a cycle through the given vertices in their order
+	 */
+	void cycle(Random rnd, int[] vertices) {
+		for (int i = 0; i < vertices.length; i++) {
+			add(rnd, vertices[i], vertices[(i + 1) % vertices.length]);
+		}
+	}
+
+	/**
+	 * Method to get the ints lo..hi in random order
+	 */
+	static int[] shuffled(Random rnd, int lo, int hi) {
+		int[] a = new int[hi - lo + 1];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = lo + i;
+		}
+		for (int i = a.length - 1; i > 0; i--) {
+			int j = rnd.nextInt(i + 1);
+			int t = a[i];
+			a[i] = a[j];
+			a[j] = t;
+		}
+		return a;
+	}
+
+	/**
+	 * Method to find where the Euler tour of the undirected graph starts,
+	 * the reference for every engine: vertex 1 for a Euler tour, the smaller
+	 * odd vertex for a Euler path. A graph with a tour has more than one
+	 * vertex, at least one edge, and every vertex is reached from vertex 1.
+	 *
+	 * @return start vertex, 0 if the graph has no Euler tour or path
+	 */
+	int start() {
+		if (n < 2 || edges.isEmpty()) {
+			return 0;
+		}
+		int[] parent = new int[n + 1];
+		int[] degree = new int[n + 1];
+		for (int v = 0; v <= n; v++) {
+			parent[v] = v;
+		}
+		int components = n;
+		for (int[] e : edges) {
+			degree[e[0]]++;
+			degree[e[1]]++;
+			int a = find(parent, e[0]);
+			int b = find(parent, e[1]);
+			if (a != b) {
+				parent[a] = b;
+				components--;
+			}
+		}
+		int odd = 0, first = 0;
+		for (int v = n; v >= 1; v--) {
+			if (degree[v] % 2 != 0) {
+				odd++;
+				first = v;
+			}
+		}
+		if (components != 1 || (odd != 0 && odd != 2)) {
+			return 0;
+		}
+		return odd == 0 ? 1 : first;
+	}
+
+	static int find(int[] parent, int x) {
+		while (parent[x] != x) {
+			x = parent[x] = parent[parent[x]];
+		}
+		return x;
+	}
+
+	/**
+	 * Method to check a tour the slow and obvious way: the edge ids are
+	 * distinct and valid, and every edge starts where the one before it
+	 * ended. In an undirected graph an edge is taken either way round.
+	 *
+	 * @param tour
+	 *            : int[] - edge ids
+	 * @param length
+	 *            : int - number of ids in the tour
+	 * @param start
+	 *            : int - vertex the walk starts at, -1 for any
+	 * @param directed
+	 *            : boolean - the edges are arcs from u to v
+	 * @return true if the ids form a trail from start
+	 */
+	boolean isTrail(int[] tour, int length, int start, boolean directed) {
+		boolean[] seen = new boolean[edges.size()];
+		for (int i = 0; i < length; i++) {
+			int e = tour[i];
+			if (e < 0 || e >= edges.size() || seen[e]) {
+				return false;
+			}
+			seen[e] = true;
+		}
+		if (length == 0) {
+			return true;
+		}
+		int[] first = edges.get(tour[0]);
+		if (directed) {
+			return (start == -1 || first[0] == start)
+					&& walks(tour, length, first[0], true);
+		}
+		return (start == -1 || start == first[0])
+				&& walks(tour, length, first[0], false)
+				|| (start == -1 || start == first[1])
+				&& walks(tour, length, first[1], false);
+	}
+
+	/**
+	 * Method to follow the edges of the tour from vertex at
+	 */
+	private boolean walks(int[] tour, int length, int at, boolean directed) {
+		for (int i = 0; i < length; i++) {
+			int[] e = edges.get(tour[i]);
+			if (e[0] == at) {
+				at = e[1];
+			} else if (!directed && e[1] == at) {
+				at = e[0];
+			} else {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Method to get the graph in the "n m" / "u v w" text format
+	 */
+	String text() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(n).append(' ').append(edges.size()).append('\n');
+		for (int[] e : edges) {
+			sb.append(e[0]).append(' ').append(e[1]).append(' ').append(e[2])
+					.append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Method to write the graph as text to a file of the given directory
+	 *
+	 * @return the file
+	 */
+	File write(File dir, String name) throws IOException {
+		File file = new File(dir, name);
+		Files.write(file.toPath(), text().getBytes(StandardCharsets.US_ASCII));
+		return file;
+	}
+}
@@ -0,0 +1,215 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * TourVerifierTest - TourVerifier against the slow reference check of
+ * RandomGraphs, on the tours of the engines and on the same tours damaged
+ * at random. Long tours are checked too, so the chunks of the parallel
+ * check are chained.
+ * @author rameshsuthan
+ *
+ */
+class TourVerifierTest {
+	private static final int ROUNDS = 200;
+
+	@TempDir
+	File dir;
+
+	@Test
+	void acceptsTheToursOfTheEngines() throws IOException {
+		Random rnd = new Random(0x56455249L);
+		for (int round = 0; round < ROUNDS; round++) {
+			int n = 2 + rnd.nextInt(24);
+			RandomGraphs r = round % 2 == 0 ? RandomGraphs.circuit(rnd, n,
+					rnd.nextInt(4)) : RandomGraphs.path(rnd, n, rnd.nextInt(4));
+			File file = r.write(dir, "g" + round + ".txt");
+			String message = "round " + round;
+			int start = r.start();
+			Graph g = Graph.readGraph(EdgeListReader.open(file), false);
+			CsrGraph cg = CsrGraph.readGraph(EdgeListReader.open(file));
+			Vertex s = g.verts.get(start);
+
+			int[] csr = CsrEulerTour.findEulerTour(cg);
+			assertTrue(TourVerifier.verify(cg, csr, start), message);
+			assertTrue(TourVerifier.verify(cg, csr, -1), message);
+			assertTrue(TourVerifier.verify(g, csr, csr.length, s), message);
+			assertTrue(TourVerifier.verify(g, Euler.findEulerTour(g), s),
+					message);
+			assertTrue(TourVerifier.verify(g,
+					IndexedEulerTour.findEulerTour(g), s), message);
+			assertTrue(TourVerifier.verify(cg,
+					ParallelEulerTour.findEulerTour(cg), start), message);
+		}
+	}
+
+	@Test
+	void agreesWithTheReferenceOnDamagedTours() throws IOException {
+		Random rnd = new Random(0x44414d47L);
+		for (int round = 0; round < 20 * ROUNDS; round++) {
+			int n = 2 + rnd.nextInt(12);
+			boolean directed = round % 3 == 2;
+			RandomGraphs r = round % 3 == 1 ? RandomGraphs.path(rnd, n,
+					rnd.nextInt(3)) : RandomGraphs.circuit(rnd, n,
+					rnd.nextInt(3));
+			File file = r.write(dir, "d.txt");
+			Graph g = Graph.readGraph(EdgeListReader.open(file), directed);
+			int[] tour = EulerEnginesTest.ids(Euler.findEulerTour(g));
+			int[] damaged = damage(rnd, tour, r.edges.size());
+			int start = rnd.nextBoolean() ? -1 : 1 + rnd.nextInt(n);
+
+			boolean expected = damaged.length == r.edges.size()
+					&& r.isTrail(damaged, damaged.length, start, directed);
+			String message = "round " + round + " tour "
+					+ Arrays.toString(damaged) + " from " + start;
+			assertEquals(expected, TourVerifier.verify(g, damaged,
+					damaged.length, start < 0 ? null : g.verts.get(start)),
+					message);
+			if (!directed) {
+				CsrGraph cg = CsrGraph.readGraph(EdgeListReader.open(file));
+				assertEquals(expected, TourVerifier.verify(cg, damaged, start),
+						message);
+			}
+		}
+	}
+
+	@Test
+	void checksLongToursInChunks() throws IOException {
+		Random rnd = new Random(0x4c4f4e47L);
+		// several chunks of TourVerifier.CHUNK edges
+		RandomGraphs r = RandomGraphs.circuit(rnd, 3000, 200);
+		while (r.edges.size() < 3 * TourVerifier.CHUNK + 17) {
+			r.closedWalk(rnd, 1 + rnd.nextInt(r.n), 1 + rnd.nextInt(6000),
+					RandomGraphs.shuffled(rnd, 1, r.n));
+		}
+		File file = r.write(dir, "long.txt");
+		CsrGraph cg = CsrGraph.readGraph(EdgeListReader.open(file));
+		int[] tour = CsrEulerTour.findEulerTour(cg);
+		assertTrue(TourVerifier.verify(cg, tour, 1));
+		assertTrue(TourVerifier.verify(cg, ParallelEulerTour.findEulerTour(cg),
+				1));
+		for (int round = 0; round < 40; round++) {
+			int[] damaged = damage(rnd, tour, r.edges.size());
+			boolean expected = damaged.length == r.edges.size()
+					&& r.isTrail(damaged, damaged.length, 1, false);
+			assertEquals(expected, TourVerifier.verify(cg, damaged, 1), "round "
+					+ round);
+		}
+	}
+
+	@Test
+	void checksWrittenTours() throws IOException {
+		Random rnd = new Random(0x46494c45L);
+		for (int round = 0; round < ROUNDS; round++) {
+			int n = 2 + rnd.nextInt(24);
+			RandomGraphs r = round % 2 == 0 ? RandomGraphs.circuit(rnd, n,
+					rnd.nextInt(4)) : RandomGraphs.path(rnd, n, rnd.nextInt(4));
+			File file = r.write(dir, "g.txt");
+			String message = "round " + round;
+			Graph g = Graph.readGraph(EdgeListReader.open(file), false);
+			CsrGraph cg = CsrGraph.readGraph(EdgeListReader.open(file));
+			int[] tour = CsrEulerTour.findEulerTour(cg);
+
+			for (TourWriter.Format format : TourWriter.Format.values()) {
+				File written = new File(dir, "tour." + format);
+				try (TourWriter out = writer(written, format)) {
+					out.write(cg, tour);
+				}
+				assertTrue(TourVerifier.verify(g, written, format), message
+						+ " " + format);
+
+				// the streamed tour is written the same way
+				File streamed = new File(dir, "streamed." + format);
+				try (TourWriter out = writer(streamed, format)) {
+					assertTrue(CsrEulerTour
+							.findEulerTour(cg, out.edgeSink(cg)));
+					out.finish();
+				}
+				assertArrayEquals(Files.readAllBytes(written.toPath()),
+						Files.readAllBytes(streamed.toPath()), message + " "
+								+ format);
+			}
+
+			// an edge written in place of one with other ends leaves a
+			// pair of vertices with more written edges than the graph has
+			int i = rnd.nextInt(tour.length);
+			int j = rnd.nextInt(tour.length);
+			if (sameEnds(r.edges.get(tour[i]), r.edges.get(tour[j]))) {
+				continue;
+			}
+			int[] damaged = tour.clone();
+			damaged[i] = tour[j];
+			for (TourWriter.Format format : new TourWriter.Format[] {
+					TourWriter.Format.PAIR, TourWriter.Format.PLAIN }) {
+				File written = new File(dir, "damaged." + format);
+				try (TourWriter out = writer(written, format)) {
+					out.write(cg, damaged);
+				}
+				assertFalse(TourVerifier.verify(g, written, format), message
+						+ " " + format);
+			}
+		}
+	}
+
+	private static TourWriter writer(File file, TourWriter.Format format)
+			throws IOException {
+		return new TourWriter(FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING), format);
+	}
+
+	private static boolean sameEnds(int[] a, int[] b) {
+		return a[0] == b[0] && a[1] == b[1] || a[0] == b[1] && a[1] == b[0];
+	}
+
+	/**
+	 * Method to damage a copy of the tour in one of several random ways, some
+	 * of which still leave a valid tour
+	 */
+	static int[] damage(Random rnd, int[] tour, int numEdges) {
+		int[] t = tour.clone();
+		int i = rnd.nextInt(t.length);
+		int j = rnd.nextInt(t.length);
+		switch (rnd.nextInt(7)) {
+		case 0: // swap two edges
+			t[i] = tour[j];
+			t[j] = tour[i];
+			return t;
+		case 1: // reverse a stretch
+			for (int a = Math.min(i, j), b = Math.max(i, j); a < b; a++, b--) {
+				int x = t[a];
+				t[a] = t[b];
+				t[b] = x;
+			}
+			return t;
+		case 2: // rotate, a circuit stays one
+			for (int k = 0; k < t.length; k++) {
+				t[k] = tour[(k + i) % t.length];
+			}
+			return t;
+		case 3: // repeat an edge
+			t[i] = tour[j];
+			return t;
+		case 4: // drop the last edge
+			return Arrays.copyOf(tour, tour.length - 1);
+		case 5: // an id out of range
+			t[i] = rnd.nextBoolean() ? -1 - rnd.nextInt(3) : numEdges
+					+ rnd.nextInt(3);
+			return t;
+		default: // untouched
+			return t;
+		}
+	}
+}